@@ -1,7 +1,13 @@
 package io.jenkins.plugins.roundtablecommander;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
+import org.kohsuke.stapler.export.Exported;
 import org.kohsuke.stapler.export.ExportedBean;
 
 import hudson.model.Action;
@@ -11,6 +17,17 @@ public class BuildData implements Action, Serializable {
 
 	private static final long serialVersionUID = 7120461448340342233L;
 
+	/**
+	 * Last fetched revision by remote key and workspace, see
+	 * {@link RoundtableRevisionState#key(String, String)}.
+	 */
+	private final Map<String, Map<String, Integer>> revisions = new TreeMap<>();
+
+	/**
+	 * Timings of every checkout of the build.
+	 */
+	private List<CheckoutTimings> checkouts;
+
 	@Override
 	public String getIconFileName() {
         return jenkins.model.Jenkins.RESOURCE_PATH+"/plugin/roundtablecommander/icons/rtb-commander-icon.png";
@@ -23,8 +40,52 @@ public class BuildData implements Action, Serializable {
 
 	@Override
 	public String getUrlName() {
-		// TODO Auto-generated method stub
+		// no page of its own, the timings are shown in the build summary
 		return null;
 	}
 
+	@Exported
+	public Map<String, Map<String, Integer>> getRevisions() {
+		return Collections.unmodifiableMap(revisions);
+	}
+
+	@Exported
+	public List<CheckoutTimings> getCheckouts() {
+		return checkouts != null ? Collections.unmodifiableList(checkouts) : Collections.emptyList();
+	}
+
+	public void addCheckout(CheckoutTimings timings) {
+		if (checkouts == null) {
+			checkouts = new ArrayList<>();
+		}
+		checkouts.add(timings);
+	}
+
+	/**
+	 * @return the last fetched revision of the workspace,
+	 *         {@link RoundtableRevisionState#UNKNOWN} if not known
+	 */
+	public int getRevision(String remote, String branch) {
+		Map<String, Integer> branches = revisions.get(remote);
+		Integer revision = branches != null ? branches.get(branch) : null;
+
+		return revision != null ? revision : RoundtableRevisionState.UNKNOWN;
+	}
+
+	/**
+	 * Record the head revisions of a checkout, the workspaces where nothing new
+	 * was fetched keep the revision of the previous build.
+	 *
+	 * @param heads    head revision by remote key and workspace
+	 * @param previous data of the previous build, can be {@code null}
+	 */
+	public void record(Map<String, ? extends Map<String, Integer>> heads, BuildData previous) {
+		heads.forEach((remote, branches) -> branches.forEach((branch, revision) -> {
+			if (revision == RoundtableRevisionState.UNKNOWN && previous != null) {
+				revision = previous.getRevision(remote, branch);
+			}
+			revisions.computeIfAbsent(remote, r -> new TreeMap<>()).put(branch, revision);
+		}));
+	}
+
 }
@@ -0,0 +1,198 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Time spent in each phase of a checkout, in total and for each remote, with
+ * the number of workspaces fetched and of commits and change log bytes written
+ * for the remote.
+ * <p>
+ * The timings are kept in the build data, the workspaces are only counted so
+ * a checkout of many workspaces does not make every build.xml larger.
+ */
+@ExportedBean(defaultVisibility = 999)
+public class CheckoutTimings implements Serializable {
+
+	private static final long serialVersionUID = 2878162339541623065L;
+
+	private final LinkedHashMap<String, Long> phases = new LinkedHashMap<>();
+	private final List<RemoteTimings> remotes = new ArrayList<>();
+
+	/**
+	 * @return elapsed milliseconds for each phase
+	 */
+	@Exported
+	public Map<String, Long> getPhases() {
+		return Collections.unmodifiableMap(phases);
+	}
+
+	@Exported
+	public List<RemoteTimings> getRemotes() {
+		return Collections.unmodifiableList(remotes);
+	}
+
+	public int getWorkspaces() {
+		return remotes.stream().mapToInt(RemoteTimings::getWorkspaces).sum();
+	}
+
+	public int getCommits() {
+		return remotes.stream().mapToInt(RemoteTimings::getCommits).sum();
+	}
+
+	public long getBytes() {
+		return remotes.stream().mapToLong(RemoteTimings::getBytes).sum();
+	}
+
+	void add(String phase, long millis) {
+		phases.merge(phase, millis, Long::sum);
+	}
+
+	RemoteTimings remote(String name) {
+		RemoteTimings remote = new RemoteTimings(name);
+		remotes.add(remote);
+		return remote;
+	}
+
+	@ExportedBean(defaultVisibility = 999)
+	public static class RemoteTimings implements Serializable {
+
+		private static final long serialVersionUID = -2385290671440383711L;
+
+		private final String name;
+		private final LinkedHashMap<String, Long> phases = new LinkedHashMap<>();
+		private int workspaces;
+		private int commits;
+		private long bytes;
+
+		/**
+		 * Timings of each workspace, only read from older builds.
+		 */
+		@Deprecated
+		private transient List<BranchTimings> branches;
+
+		private RemoteTimings(String name) {
+			this.name = name;
+		}
+
+		private Object readResolve() {
+			if (branches != null) {
+				branches.forEach(this::add);
+				branches = null;
+			}
+			return this;
+		}
+
+		@Exported
+		public String getName() {
+			return name;
+		}
+
+		@Exported
+		public Map<String, Long> getPhases() {
+			return Collections.unmodifiableMap(phases);
+		}
+
+		/**
+		 * @return number of workspaces fetched
+		 */
+		@Exported
+		public int getWorkspaces() {
+			return workspaces;
+		}
+
+		@Exported
+		public int getCommits() {
+			return commits;
+		}
+
+		@Exported
+		public long getBytes() {
+			return bytes;
+		}
+
+		void add(String phase, long millis) {
+			phases.merge(phase, millis, Long::sum);
+		}
+
+		BranchTimings branch(String branch) {
+			return new BranchTimings(branch, this);
+		}
+
+		private void add(BranchTimings branch) {
+			workspaces++;
+			commits += branch.commits;
+			bytes += branch.bytes;
+		}
+	}
+
+	/**
+	 * Timings of a workspace fetch, added to the remote totals once written to
+	 * the change log.
+	 */
+	public static class BranchTimings implements Serializable {
+
+		private static final long serialVersionUID = 6016416624520113396L;
+
+		private final String name;
+		private long fetchMillis;
+		private long copyMillis;
+		private int commits;
+		private long bytes;
+		private transient RemoteTimings remote;
+
+		private BranchTimings(String name, RemoteTimings remote) {
+			this.name = name;
+			this.remote = remote;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getFetchMillis() {
+			return fetchMillis;
+		}
+
+		public long getCopyMillis() {
+			return copyMillis;
+		}
+
+		/**
+		 * @return number of commits written to the change log
+		 */
+		public int getCommits() {
+			return commits;
+		}
+
+		/**
+		 * @return change log bytes written for the commits, before compression
+		 */
+		public long getBytes() {
+			return bytes;
+		}
+
+		void setFetchMillis(long fetchMillis) {
+			this.fetchMillis = fetchMillis;
+		}
+
+		void setCopyMillis(long copyMillis) {
+			this.copyMillis = copyMillis;
+		}
+
+		void setWritten(int commits, long bytes) {
+			this.commits = commits;
+			this.bytes = bytes;
+			if (remote != null) {
+				remote.add(this);
+			}
+		}
+	}
+}
@@ -1,17 +1,91 @@
 package io.jenkins.plugins.roundtablecommander;
 
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
 import hudson.model.TaskListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import ro.acorn.roundtable.logging.RoundtableLogger;
 
+/**
+ * Sends the client messages to the build log.
+ * <p>
+ * Messages below the level are dropped before anything is formatted, the
+ * others are buffered and written in chunks so a chatty fetch does not go
+ * through remoting one line at a time. Buffered messages are written within a
+ * second even when the client goes quiet, and right away when a phase ends.
+ * Runs of similar lines, differing only
+ * in their numbers like progress messages, are collapsed to the last one and
+ * the number of informational lines is capped for each checkout phase;
+ * warnings and errors are always written.
+ */
 public class RTBTaskListener implements RoundtableLogger {
 
-	private final TaskListener listener;
-	private Level level = Level.INFO;
+	/**
+	 * Informational lines written for each phase.
+	 */
+	public static final int DEFAULT_MAX_LINES_PER_PHASE = 1000;
+
+	private static final int BUFFER_SIZE = 8 * 1024;
+	private static final long FLUSH_NANOS = TimeUnit.SECONDS.toNanos(1);
+	private static final Pattern NUMBERS = Pattern.compile("\\d+");
+
+	/**
+	 * Writes the messages buffered by clients that went quiet.
+	 */
+	private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(
+			new NamingThreadFactory(new DaemonThreadFactory(), "RTBTaskListener.flush"));
+
+	private volatile TaskListener listener;
+	private volatile Level level = Level.INFO;
+	private int maxLinesPerPhase = DEFAULT_MAX_LINES_PER_PHASE;
+
+	private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE);
+	private long lastFlush = System.nanoTime();
+	private String phase;
+	private int phaseLines;
+	private int phaseDropped;
+	private String pending;
+	private String pendingKey;
+	private int collapsed;
+	private boolean flushScheduled;
 
 	public RTBTaskListener(TaskListener listener) {
 		this.listener = listener;
 	}
 
+	/**
+	 * Redirect the client messages, used when a pooled client is handed to
+	 * another build. Messages still buffered go to the previous listener.
+	 *
+	 * @param listener the new listener
+	 */
+	public synchronized void setListener(TaskListener listener) {
+		endPhase();
+		flush();
+		this.listener = listener != null ? listener : TaskListener.NULL;
+		this.phase = null;
+	}
+
+	public synchronized void setMaxLinesPerPhase(int maxLinesPerPhase) {
+		this.maxLinesPerPhase = maxLinesPerPhase;
+	}
+
+	/**
+	 * Start a new phase, the line cap is counted again.
+	 *
+	 * @param phase name of the phase
+	 */
+	public synchronized void phase(String phase) {
+		endPhase();
+		flush();
+		this.phase = phase;
+	}
+
 	@Override
 	public Level getLevel() {
 		return level;
@@ -24,17 +98,114 @@ public class RTBTaskListener implements RoundtableLogger {
 
 	@Override
 	public void doLog(Level level, String msg, Throwable thrown) {
+		if (severity(level) < severity(this.level)) {
+			return;
+		}
+
+		synchronized (this) {
+			switch (level) {
+			case WARNING:
+				write("WARNING: " + message(msg, thrown));
+				break;
+			case ERROR:
+				write("ERROR: " + message(msg, thrown));
+				break;
+			default:
+				if (phaseLines >= maxLinesPerPhase) {
+					phaseDropped++;
+				} else {
+					collapse(msg);
+				}
+				break;
+			}
+
+			if (buffer.length() >= BUFFER_SIZE || System.nanoTime() - lastFlush >= FLUSH_NANOS) {
+				flush();
+			} else if (!flushScheduled) {
+				flushScheduled = true;
+				FLUSHER.schedule(this::scheduledFlush, FLUSH_NANOS, TimeUnit.NANOSECONDS);
+			}
+		}
+	}
+
+	/**
+	 * Write the buffered messages to the listener.
+	 */
+	public synchronized void flush() {
+		writePending();
+
+		if (buffer.length() > 0) {
+			PrintStream logger = listener.getLogger();
+
+			logger.print(buffer);
+			logger.flush();
+			buffer.setLength(0);
+		}
+		lastFlush = System.nanoTime();
+	}
+
+	private synchronized void scheduledFlush() {
+		flushScheduled = false;
+		flush();
+	}
+
+	/**
+	 * Hold the line until a different one comes, similar lines replace it.
+	 */
+	private void collapse(String msg) {
+		String key = msg != null ? NUMBERS.matcher(msg).replaceAll("#") : "";
+
+		if (pending != null && key.equals(pendingKey)) {
+			collapsed++;
+		} else {
+			writePending();
+			phaseLines++;
+			pendingKey = key;
+		}
+		pending = msg;
+	}
+
+	private void writePending() {
+		if (pending != null) {
+			buffer.append(pending);
+			if (collapsed > 0) {
+				buffer.append(" (").append(collapsed).append(" similar lines collapsed)");
+			}
+			buffer.append('\n');
+		}
+		pending = null;
+		pendingKey = null;
+		collapsed = 0;
+	}
+
+	private void write(String line) {
+		writePending();
+		buffer.append(line).append('\n');
+	}
+
+	private void endPhase() {
+		if (phaseDropped > 0) {
+			write(String.format("... %d more Roundtable messages not shown%s.", phaseDropped,
+					phase != null ? " for " + phase : ""));
+		}
+		phaseLines = 0;
+		phaseDropped = 0;
+	}
+
+	private static String message(String msg, Throwable thrown) {
+		return thrown != null && thrown.getMessage() != null ? msg + ": " + thrown.getMessage() : msg;
+	}
+
+	private static int severity(Level level) {
 		switch (level) {
-		case WARNING:
-			listener.error(msg);
-			break;
 		case ERROR:
-			listener.fatalError(msg);
-			break;
+			return 3;
+		case WARNING:
+			return 2;
+		case INFO:
+			return 1;
 		default:
-			listener.getLogger().println(msg);
-			break;
+			return 0;
 		}
 	}
-
 }
@@ -13,6 +13,7 @@ import java.util.UUID;
 import org.apache.commons.lang.StringUtils;
 import org.kohsuke.stapler.AncestorInPath;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.export.Exported;
 import org.kohsuke.stapler.export.ExportedBean;
@@ -55,6 +56,8 @@ public class RemoteConfig extends AbstractDescribableImpl<RemoteConfig> implemen
 	private String url;
 	private String name;
 	private String credentialsId;
+	private Integer fetchConcurrency;
+	private Integer maxConnections;
 	
 	/**
 	 * All the workspaces that we wish to care about building.
@@ -84,6 +87,26 @@ public class RemoteConfig extends AbstractDescribableImpl<RemoteConfig> implemen
 		return name;
 	}
 	
+	@Exported
+	public Integer getFetchConcurrency() {
+		return fetchConcurrency;
+	}
+
+	@DataBoundSetter
+	public void setFetchConcurrency(Integer fetchConcurrency) {
+		this.fetchConcurrency = fetchConcurrency != null && fetchConcurrency > 0 ? fetchConcurrency : null;
+	}
+
+	@Exported
+	public Integer getMaxConnections() {
+		return maxConnections;
+	}
+
+	@DataBoundSetter
+	public void setMaxConnections(Integer maxConnections) {
+		this.maxConnections = maxConnections != null && maxConnections > 0 ? maxConnections : null;
+	}
+	
 	@Exported
 	public List<WorkspaceSpec> getWorkspaces() {
 		return Collections.unmodifiableList(workspaces);
@@ -169,19 +192,29 @@ public class RemoteConfig extends AbstractDescribableImpl<RemoteConfig> implemen
 				// set by variable, can't validate
 				return FormValidation.ok();
 
-			RoundtableClient client = RoundtableClient.instance();
 			StandardCredentials credentials = lookupCredentials(item, credentialsId, url);
+			UserPasswordCredentials rtbCredentials = null;
 
-			// attempt to connect the provided URL
-			try {
-				UserPasswordCredentials rtbCredentials = null;
-				
-				if (credentials != null && credentials instanceof StandardUsernamePasswordCredentials) {
-					StandardUsernamePasswordCredentials userPasswd = (StandardUsernamePasswordCredentials) credentials;
+			if (credentials != null && credentials instanceof StandardUsernamePasswordCredentials) {
+				StandardUsernamePasswordCredentials userPasswd = (StandardUsernamePasswordCredentials) credentials;
 
-					rtbCredentials = new UserPasswordCredentials(userPasswd.getUsername(), userPasswd.getPassword().getPlainText());
-				}
-				client.checkRemote(url, rtbCredentials);
+				rtbCredentials = new UserPasswordCredentials(userPasswd.getUsername(), userPasswd.getPassword().getPlainText());
+			}
+
+			UserPasswordCredentials checkCredentials = rtbCredentials;
+
+			// attempt to connect the provided URL in the background
+			return RoundtableUrlValidator.get().check(item != null ? item.getFullName() : null, url, credentialsId,
+					() -> checkRemote(url, checkCredentials));
+		}
+
+		private static FormValidation checkRemote(String url, UserPasswordCredentials credentials) {
+			// the shared client is not bound to a workspace, it is not pooled
+			RoundtableClient client = RoundtableClient.instance();
+
+			try {
+				RoundtableCheckout.timedRun(RoundtableMetrics.get(), url, "checkRemote",
+						() -> client.checkRemote(url, credentials));
 			} catch (RoundtableException e) {
 				return FormValidation.error(e.getMessage());
 			}
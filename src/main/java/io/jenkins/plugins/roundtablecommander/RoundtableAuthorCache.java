@@ -0,0 +1,102 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Saveable;
+import hudson.model.User;
+import hudson.model.listeners.SaveableListener;
+import jenkins.model.IdStrategy;
+
+/**
+ * Bounded cache of the Jenkins users matching the Roundtable user names of
+ * the change log entries, so rendering the change pages does not look the
+ * users up for every entry again.
+ * <p>
+ * When a user configuration is saved the names resolved to that user, or that
+ * would now resolve to it by id or full name, are looked up again. A deleted
+ * user is noticed when next read from the cache, the core does not tell about
+ * deletions.
+ */
+public final class RoundtableAuthorCache {
+
+	private static final int MAX_SIZE = 1000;
+
+	private static final Map<String, User> USERS = new LinkedHashMap<String, User>(64, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, User> eldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+
+	private RoundtableAuthorCache() {
+	}
+
+	/**
+	 * Resolve a Roundtable user name to the Jenkins user.
+	 *
+	 * @param name Roundtable user name
+	 * @return the Jenkins user, created if needed
+	 */
+	public static User get(String name) {
+		User user;
+
+		synchronized (USERS) {
+			user = USERS.get(name);
+		}
+
+		// the user was deleted
+		if (user != null && User.getById(user.getId(), false) != user) {
+			user = null;
+		}
+
+		if (user == null) {
+			user = User.getOrCreateByIdOrFullName(name);
+
+			synchronized (USERS) {
+				USERS.put(name, user);
+			}
+		}
+
+		return user;
+	}
+
+	public static void invalidateAll() {
+		synchronized (USERS) {
+			USERS.clear();
+		}
+	}
+
+	/**
+	 * Forget the names resolved to the user and the names matching its id or
+	 * full name.
+	 *
+	 * @param user the changed user
+	 */
+	public static void invalidate(User user) {
+		IdStrategy ids = User.idStrategy();
+		String id = user.getId();
+		String fullName = user.getFullName();
+
+		synchronized (USERS) {
+			USERS.entrySet().removeIf(e -> ids.equals(e.getValue().getId(), id) || fullName.equals(e.getKey())
+					|| e.getKey() != null && ids.equals(e.getKey(), id));
+		}
+	}
+
+	@Extension
+	public static class UserSaveListener extends SaveableListener {
+
+		@Override
+		public void onChange(Saveable o, XmlFile file) {
+			if (o instanceof User) {
+				invalidate((User) o);
+			}
+		}
+	}
+}
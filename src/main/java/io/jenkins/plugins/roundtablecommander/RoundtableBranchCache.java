@@ -0,0 +1,174 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import ro.acorn.roundtable.rtbclient.RoundtableException;
+
+/**
+ * Short lived cache of the remote workspace lists, keyed by repository URL and
+ * credentials identity.
+ * <p>
+ * When many jobs using the same repository start at once only the first one
+ * asks the Roundtable server, the others wait for that request and share its
+ * result until it expires. If the first one fails for its own reasons, like
+ * being aborted, the next waiting job asks the server instead.
+ */
+public final class RoundtableBranchCache {
+
+	public static final int DEFAULT_TTL_SECONDS = 30;
+
+	private static final RoundtableBranchCache INSTANCE = new RoundtableBranchCache();
+
+	private final ConcurrentHashMap<Key, Listing> listings = new ConcurrentHashMap<>();
+
+	private RoundtableBranchCache() {
+	}
+
+	public static RoundtableBranchCache get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Get the remote workspaces, loading them only if there is no fresh listing
+	 * for the same URL and credentials, or one already being loaded.
+	 *
+	 * @param url       remote repository URL
+	 * @param identity  identity of the credentials used for the listing
+	 * @param ttlMillis how long a listing is reused, caching is disabled if not
+	 *                  positive
+	 * @param loader    asks the Roundtable server for the workspaces
+	 * @return the remote workspaces
+	 */
+	public Collection<String> getBranches(String url, String identity, long ttlMillis, Loader loader)
+			throws RoundtableException, InterruptedException {
+		if (ttlMillis <= 0 || url == null) {
+			return loader.load();
+		}
+
+		Key key = new Key(url, identity);
+
+		listings.values().removeIf(l -> l.isExpired(ttlMillis));
+
+		while (true) {
+			Listing current = listings.get(key);
+
+			if (current != null && !current.isExpired(ttlMillis)) {
+				List<String> branches = current.await();
+
+				if (branches != null) {
+					return branches;
+				}
+				// the loading job failed, the listing is gone so load it again
+				continue;
+			}
+
+			Listing listing = new Listing();
+
+			if (current == null ? listings.putIfAbsent(key, listing) == null
+					: listings.replace(key, current, listing)) {
+				try {
+					List<String> branches = Collections.unmodifiableList(new ArrayList<>(loader.load()));
+
+					listing.complete(branches);
+					return branches;
+				} catch (Exception e) {
+					// failures are not cached, the next caller tries again
+					listings.remove(key, listing);
+					listing.future.completeExceptionally(e);
+					throw e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drop the cached listings of a remote repository, for all credentials.
+	 *
+	 * @param url remote repository URL
+	 */
+	public void invalidate(String url) {
+		listings.keySet().removeIf(k -> k.url.equals(url));
+	}
+
+	/**
+	 * Drop all cached listings.
+	 */
+	public void invalidateAll() {
+		listings.clear();
+	}
+
+	@FunctionalInterface
+	public interface Loader {
+		Collection<String> load() throws RoundtableException, InterruptedException;
+	}
+
+	private static final class Listing {
+
+		private final CompletableFuture<List<String>> future = new CompletableFuture<>();
+		private volatile long loadedAt;
+
+		private void complete(List<String> branches) {
+			loadedAt = System.currentTimeMillis();
+			future.complete(branches);
+		}
+
+		/**
+		 * A listing still loading never expires, callers wait for it instead.
+		 */
+		private boolean isExpired(long ttlMillis) {
+			return future.isDone() && System.currentTimeMillis() - loadedAt > ttlMillis;
+		}
+
+		/**
+		 * @return the workspaces, {@code null} if the loading failed for another
+		 *         reason than a server error
+		 */
+		private List<String> await() throws RoundtableException, InterruptedException {
+			try {
+				return future.get();
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+
+				if (cause instanceof RoundtableException) {
+					throw (RoundtableException) cause;
+				}
+				return null;
+			}
+		}
+	}
+
+	private static final class Key {
+
+		private final String url;
+		private final String identity;
+
+		private Key(String url, String identity) {
+			this.url = url;
+			this.identity = identity != null ? identity : "";
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return url.equals(other.url) && identity.equals(other.identity);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(url, identity);
+		}
+	}
+}
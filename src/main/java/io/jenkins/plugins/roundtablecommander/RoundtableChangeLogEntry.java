@@ -4,12 +4,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
-import java.util.stream.Collectors;
+import java.util.List;
 
 import org.kohsuke.stapler.export.Exported;
 import org.kohsuke.stapler.export.ExportedBean;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.model.User;
 import hudson.scm.ChangeLogSet;
 import hudson.scm.EditType;
@@ -24,7 +23,7 @@ public class RoundtableChangeLogEntry extends ChangeLogSet.Entry implements ICom
 	public Date date;
 	public String user;
 	public Collection<Entry> entries;
-	private Collection<Path> paths;
+	private User author;
 
 	public RoundtableChangeLogEntry() {
 	}
@@ -36,27 +35,50 @@ public class RoundtableChangeLogEntry extends ChangeLogSet.Entry implements ICom
 
 	@Override
 	public User getAuthor() {
-		return User.getOrCreateByIdOrFullName(user);
+		return author != null ? author : RoundtableAuthorCache.get(user);
+	}
+
+	/**
+	 * Resolve the author now instead of when first rendered.
+	 */
+	void resolveAuthor() {
+		this.author = RoundtableAuthorCache.get(user);
+	}
+
+	/**
+	 * Move the file paths of all entries to the shared path table of the change
+	 * log set.
+	 * 
+	 * @param table path table of the change log set
+	 */
+	void compact(RoundtablePathTable table) {
+		if (this.entries != null) {
+			this.entries.forEach(e -> e.compact(table));
+		}
 	}
 
 	@Override
-	@SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "Low risk")
 	public Collection<Path> getAffectedFiles() {
-		if (this.paths == null) {
-			this.paths = new ArrayList<>();
-
-			if (this.entries != null) {
-				this.entries.forEach(e -> {
-					e.files.forEach(f -> this.paths.add(new Path(f, e)));
-				});
-			}
+		List<Path> paths = new ArrayList<>();
+
+		if (this.entries != null) {
+			this.entries.forEach(e -> {
+				for (int i = 0; i < e.getFileCount(); i++) {
+					paths.add(new Path(e, i));
+				}
+			});
 		}
-		return this.paths;
+		return paths;
 	}
 
 	@Override
 	public Collection<String> getAffectedPaths() {
-		return this.paths.stream().map(Path::getPath).collect(Collectors.toList());
+		List<String> paths = new ArrayList<>();
+
+		if (this.entries != null) {
+			this.entries.forEach(e -> paths.addAll(e.getFiles()));
+		}
+		return paths;
 	}
 
 	@Override
@@ -81,7 +103,7 @@ public class RoundtableChangeLogEntry extends ChangeLogSet.Entry implements ICom
 
 	@Override
 	public Collection<ICommitEntry> getEntries() {
-		return Collections.unmodifiableCollection(entries);
+		return entries != null ? Collections.unmodifiableCollection(entries) : Collections.emptyList();
 	}
 
 	@Override
@@ -101,6 +123,8 @@ public class RoundtableChangeLogEntry extends ChangeLogSet.Entry implements ICom
 		public RTBAction action;
 		public String notes;
 		public Collection<String> files;
+		private RoundtablePathTable table;
+		private int[] fileIds;
 
 		@Override
 		public int getRevision() {
@@ -124,7 +148,37 @@ public class RoundtableChangeLogEntry extends ChangeLogSet.Entry implements ICom
 
 		@Override
 		public Collection<String> getFiles() {
-			return files;
+			if (fileIds == null) {
+				return files != null ? files : Collections.emptyList();
+			}
+
+			List<String> paths = new ArrayList<>(fileIds.length);
+			for (int id : fileIds) {
+				paths.add(table.get(id));
+			}
+			return paths;
+		}
+
+		private int getFileCount() {
+			if (fileIds == null) {
+				return files != null ? files.size() : 0;
+			}
+			return fileIds.length;
+		}
+
+		private String getFile(int i) {
+			if (fileIds == null) {
+				return files instanceof List ? ((List<String>) files).get(i) : new ArrayList<>(files).get(i);
+			}
+			return table.get(fileIds[i]);
+		}
+
+		private void compact(RoundtablePathTable table) {
+			if (fileIds == null && files != null) {
+				this.table = table;
+				this.fileIds = table.intern(files);
+				this.files = null;
+			}
 		}
 
 		@Override
@@ -136,17 +190,17 @@ public class RoundtableChangeLogEntry extends ChangeLogSet.Entry implements ICom
 	@ExportedBean(defaultVisibility = 999)
 	public static class Path implements AffectedFile {
 
-		private String path;
-		private Entry changeSet;
+		private final Entry changeSet;
+		private final int file;
 
-		private Path(String filePath, Entry changeSet) {
-			this.path = filePath;
+		private Path(Entry changeSet, int file) {
 			this.changeSet = changeSet;
+			this.file = file;
 		}
 
 		@Exported(name = "file")
 		public String getPath() {
-			return path;
+			return changeSet.getFile(file);
 		}
 
 		@Exported
@@ -1,7 +1,11 @@
 package io.jenkins.plugins.roundtablecommander;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
 
 import org.xml.sax.SAXException;
 
@@ -13,14 +17,49 @@ import hudson.scm.ChangeLogSet.Entry;
 
 public class RoundtableChangeLogParser extends ChangeLogParser {
 
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final boolean resolveAuthors;
+
 	public RoundtableChangeLogParser() {
+		this(false);
+	}
+
+	/**
+	 * @param resolveAuthors resolve the authors of the entries when parsed
+	 */
+	public RoundtableChangeLogParser(boolean resolveAuthors) {
+		this.resolveAuthors = resolveAuthors;
 	}
 
 	@Override
 	public ChangeLogSet<? extends Entry> parse(@SuppressWarnings("rawtypes") Run build, RepositoryBrowser<?> browser, File changelogFile)
 			throws IOException, SAXException {
 
-		return new RoundtableChangeLogSet(build, browser, changelogFile);
+		return new RoundtableChangeLogSet(build, browser, changelogFile, resolveAuthors);
+	}
+
+	/**
+	 * Open a change log for reading, a gzip compressed change log is recognized
+	 * by its magic header and uncompressed on the fly while plain JSON change
+	 * logs, including those of older builds, are read as they are.
+	 * 
+	 * @param changelogFile the change log file
+	 * @return stream of the JSON content
+	 */
+	public static InputStream open(File changelogFile) throws IOException {
+		InputStream in = new BufferedInputStream(Files.newInputStream(changelogFile.toPath()), BUFFER_SIZE);
+
+		try {
+			in.mark(2);
+			int magic = in.read() | (in.read() << 8);
+			in.reset();
+
+			return magic == GZIPInputStream.GZIP_MAGIC ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
 	}
 
 }
@@ -2,42 +2,117 @@ package io.jenkins.plugins.roundtablecommander;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.kohsuke.stapler.export.Exported;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.model.Run;
 import hudson.scm.ChangeLogSet;
 import hudson.scm.RepositoryBrowser;
 
+/**
+ * Change log set read lazily from the change log file.
+ * <p>
+ * Emptiness and size come from the file length and the summary saved next to
+ * it, the entries are streamed from the file only when iterated and kept
+ * through a soft reference once fully read. The affected file paths of all
+ * entries are kept in a single {@link RoundtablePathTable}. A corrupt file is
+ * logged and only the entries read before the error are shown.
+ */
 public class RoundtableChangeLogSet extends ChangeLogSet<RoundtableChangeLogEntry> {
 
-	private final List<RoundtableChangeLogEntry> entries;
+	/**
+	 * Closes the parsers of iterators abandoned before reaching the end.
+	 */
+	private static final Cleaner CLEANER = Cleaner.create();
+
+	private static final Logger LOGGER = Logger.getLogger(RoundtableChangeLogSet.class.getName());
+
+	private final File changelogFile;
+	private final RoundtableChangeLogSummary summary;
+	private final RoundtablePathTable paths = new RoundtablePathTable();
+	private final boolean resolveAuthors;
+	private volatile SoftReference<List<RoundtableChangeLogEntry>> entries = new SoftReference<>(null);
+	private volatile int size = -1;
 
 	public RoundtableChangeLogSet(Run<?, ?> run, RepositoryBrowser<?> browser, File changelogFile) throws IOException {
+		this(run, browser, changelogFile, false);
+	}
+
+	public RoundtableChangeLogSet(Run<?, ?> run, RepositoryBrowser<?> browser, File changelogFile,
+			boolean resolveAuthors) throws IOException {
 		super(run, browser);
-		this.entries = parse(changelogFile);
+		this.resolveAuthors = resolveAuthors;
+		this.changelogFile = changelogFile != null && changelogFile.exists() && changelogFile.length() > 0
+				? changelogFile
+				: null;
+		this.summary = this.changelogFile != null ? RoundtableChangeLogSummary.load(this.changelogFile) : null;
+
+		if (summary != null) {
+			size = summary.getCount();
+		}
 	}
 
 	@Override
 	public Iterator<RoundtableChangeLogEntry> iterator() {
-		return Collections.unmodifiableList(entries).iterator();
+		List<RoundtableChangeLogEntry> cached = entries.get();
+
+		if (cached != null) {
+			return cached.iterator();
+		}
+		if (changelogFile == null) {
+			return Collections.emptyIterator();
+		}
+
+		try {
+			return new EntryIterator();
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Cannot read the change log " + changelogFile, e);
+			return Collections.emptyIterator();
+		}
 	}
 
 	@Override
 	public boolean isEmptySet() {
-		return entries.isEmpty();
+		// nothing is written when there are no changes
+		return changelogFile == null || size == 0;
+	}
+
+	/**
+	 * @return the number of entries, from the summary if available
+	 */
+	public int getSize() {
+		if (size < 0) {
+			size = getEntries().size();
+		}
+		return size;
 	}
 
 	@SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "Low risk")
 	public List<RoundtableChangeLogEntry> getEntries() {
-		return entries;
+		List<RoundtableChangeLogEntry> cached = entries.get();
+
+		if (cached == null) {
+			List<RoundtableChangeLogEntry> read = new ArrayList<>();
+
+			iterator().forEachRemaining(read::add);
+			cached = Collections.unmodifiableList(read);
+			entries = new SoftReference<>(cached);
+		}
+
+		return cached;
 	}
 
 	@Exported
@@ -45,15 +120,98 @@ public class RoundtableChangeLogSet extends ChangeLogSet<RoundtableChangeLogEntr
 		return "roundtable";
 	}
 
-	private List<RoundtableChangeLogEntry> parse(File changelogFile) throws IOException {
-		if (changelogFile != null && changelogFile.exists() && changelogFile.length() > 0) {
-			ObjectMapper mapper = new ObjectMapper();
+	/**
+	 * Streams the entries from the change log file, the entries read are cached
+	 * when the end is reached. The parse is recorded as a flight recorder event
+	 * when the end or an error is reached, not for abandoned iterators.
+	 */
+	private final class EntryIterator implements Iterator<RoundtableChangeLogEntry> {
+
+		private final JsonParser parser;
+		private final Cleaner.Cleanable cleanable;
+		private final List<RoundtableChangeLogEntry> read = new ArrayList<>();
+		private final RoundtableEvent event;
+		private RoundtableChangeLogEntry next;
+		private boolean done;
+
+		private EntryIterator() throws IOException {
+			Run<?, ?> run = getRun();
+
+			event = new RoundtableEvent("changelogParse", run != null ? run.getParent().getFullName() : null, null);
+			event.begin();
+
+			JsonParser p = RoundtableChangeLogWriter.MAPPER.getFactory()
+					.createParser(RoundtableChangeLogParser.open(changelogFile));
+
+			this.parser = p;
+			this.cleanable = CLEANER.register(this, () -> closeQuietly(p));
+
+			try {
+				if (parser.nextToken() != JsonToken.START_ARRAY) {
+					throw new IOException("Invalid change log file: " + changelogFile);
+				}
+			} catch (IOException e) {
+				cleanable.clean();
+				event.end(0, true);
+				throw e;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (next == null && !done) {
+				try {
+					if (parser.nextToken() == JsonToken.START_OBJECT) {
+						next = RoundtableChangeLogWriter.MAPPER.readValue(parser, RoundtableChangeLogEntry.class);
+						next.compact(paths);
+						if (resolveAuthors) {
+							next.resolveAuthor();
+						}
+						read.add(next);
+					} else {
+						finish();
+					}
+				} catch (IOException e) {
+					// the pages show the entries read so far
+					LOGGER.log(Level.WARNING, "Cannot read the change log " + changelogFile + " after "
+							+ read.size() + " entries", e);
+					next = null;
+					done = true;
+					cleanable.clean();
+					event.end(read.size(), true);
+				}
+			}
+
+			return next != null;
+		}
+
+		@Override
+		public RoundtableChangeLogEntry next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
 
-			return mapper.readValue(changelogFile, new TypeReference<List<RoundtableChangeLogEntry>>() {
-			});
+			RoundtableChangeLogEntry entry = next;
+			next = null;
+			return entry;
 		}
 
-		return Collections.emptyList();
+		private void finish() {
+			done = true;
+			cleanable.clean();
+			event.end(read.size(), false);
 
+			List<RoundtableChangeLogEntry> all = Collections.unmodifiableList(read);
+			entries = new SoftReference<>(all);
+			size = all.size();
+		}
+	}
+
+	private static void closeQuietly(JsonParser parser) {
+		try {
+			parser.close();
+		} catch (IOException e) {
+			// nothing to do
+		}
 	}
 }
@@ -0,0 +1,144 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import ro.acorn.roundtable.model.ICommit;
+
+/**
+ * Small summary kept next to the change log file so the change log set and
+ * the project changes page can answer simple questions without reading all
+ * the entries: the number of commits, their authors and the first messages.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RoundtableChangeLogSummary implements Serializable {
+
+	private static final long serialVersionUID = -3165872395425816532L;
+
+	static final String SUFFIX = ".summary";
+
+	/**
+	 * Number of messages kept in the summary.
+	 */
+	public static final int MAX_MESSAGES = 10;
+
+	/**
+	 * Number of distinct authors kept in the summary.
+	 */
+	public static final int MAX_AUTHORS = 50;
+
+	public int count;
+	public List<String> authors = new ArrayList<>();
+	public List<Message> messages = new ArrayList<>();
+
+	public RoundtableChangeLogSummary() {
+	}
+
+	/**
+	 * Account for a commit written to the change log.
+	 *
+	 * @param commit the commit
+	 */
+	public void add(ICommit commit) {
+		count++;
+
+		if (commit.getUser() != null && authors.size() < MAX_AUTHORS && !authors.contains(commit.getUser())) {
+			authors.add(commit.getUser());
+		}
+		if (messages.size() < MAX_MESSAGES) {
+			messages.add(new Message(commit.getRevision(), commit.getComment(), commit.getUser()));
+		}
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public List<String> getAuthors() {
+		return Collections.unmodifiableList(authors);
+	}
+
+	public List<Message> getMessages() {
+		return Collections.unmodifiableList(messages);
+	}
+
+	/**
+	 * @return true if not all the commits are in the summary messages
+	 */
+	@JsonIgnore
+	public boolean isTruncated() {
+		return count > messages.size();
+	}
+
+	/**
+	 * Save the summary next to the change log file.
+	 *
+	 * @param changelogFile the change log file
+	 */
+	public void save(File changelogFile) throws IOException {
+		RoundtableChangeLogWriter.MAPPER.writeValue(summaryFile(changelogFile), this);
+	}
+
+	/**
+	 * Load the summary saved next to the change log file.
+	 *
+	 * @param changelogFile the change log file
+	 * @return the summary or {@code null} if there is none, like for change logs
+	 *         written by older versions
+	 */
+	public static RoundtableChangeLogSummary load(File changelogFile) {
+		File summaryFile = summaryFile(changelogFile);
+
+		if (summaryFile.isFile()) {
+			try {
+				return RoundtableChangeLogWriter.MAPPER.readValue(summaryFile, RoundtableChangeLogSummary.class);
+			} catch (IOException e) {
+				// fall back to the change log itself
+			}
+		}
+
+		return null;
+	}
+
+	private static File summaryFile(File changelogFile) {
+		return new File(changelogFile.getPath() + SUFFIX);
+	}
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	public static class Message implements Serializable {
+
+		private static final long serialVersionUID = 4263874021389176552L;
+
+		public int revision;
+		public String msg;
+		public String user;
+
+		public Message() {
+		}
+
+		public Message(int revision, String msg, String user) {
+			this.revision = revision;
+			this.msg = msg;
+			this.user = user;
+		}
+
+		public int getRevision() {
+			return revision;
+		}
+
+		public String getMsg() {
+			return msg;
+		}
+
+		public String getUser() {
+			return user;
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.output.CountingOutputStream;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import hudson.model.TaskListener;
+import ro.acorn.roundtable.model.ICommit;
+
+/**
+ * Writes the change log as a JSON array, one commit at a time as they are
+ * fetched so the commits of a checkout never need to be held in memory all at
+ * once.
+ * <p>
+ * The file is only created when the first commit is written, same as before
+ * nothing is written when there are no changes. Writing errors are reported
+ * once on the listener and do not fail the checkout.
+ * <p>
+ * The change log can optionally be gzip compressed, the parser recognizes the
+ * format from the first bytes of the file.
+ */
+public class RoundtableChangeLogWriter implements Closeable {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Shared mapper, thread-safe once configured.
+	 */
+	static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private static final ObjectWriter WRITER = MAPPER.writer()
+			.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+	private final File changelogFile;
+	private final TaskListener listener;
+	private final boolean compress;
+	private String job;
+	private final RoundtableChangeLogSummary summary = new RoundtableChangeLogSummary();
+	private JsonGenerator generator;
+	private CountingOutputStream counter;
+	private boolean failed;
+	private long elapsed;
+
+	/**
+	 * @param changelogFile the change log file, nothing is written if
+	 *                      {@code null}
+	 * @param listener      listener for writing errors
+	 * @param compress      write a gzip compressed change log
+	 */
+	public RoundtableChangeLogWriter(File changelogFile, TaskListener listener, boolean compress) {
+		this.changelogFile = changelogFile;
+		this.listener = listener;
+		this.compress = compress;
+	}
+
+	/**
+	 * @param job full name of the job, recorded in the flight recorder events
+	 */
+	public void setJob(String job) {
+		this.job = job;
+	}
+
+	/**
+	 * Append the commits of one workspace to the change log.
+	 *
+	 * @param commits the fetched commits
+	 * @return number of bytes written for the commits, before compression
+	 */
+	public long write(Iterable<? extends ICommit> commits) {
+		if (commits == null) {
+			return 0;
+		}
+
+		long start = System.nanoTime();
+		long written = getBytesWritten();
+		int count = 0;
+		RoundtableEvent event = new RoundtableEvent("changelogWrite", job, RoundtableMetrics.LOCAL);
+
+		event.begin();
+
+		for (ICommit commit : commits) {
+			summary.add(commit);
+			count++;
+
+			if (changelogFile == null || failed) {
+				continue;
+			}
+
+			try {
+				if (generator == null) {
+					OutputStream out = Files.newOutputStream(changelogFile.toPath());
+
+					if (compress) {
+						out = new GZIPOutputStream(out, BUFFER_SIZE);
+					}
+					counter = new CountingOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+					generator = MAPPER.getFactory().createGenerator(counter, JsonEncoding.UTF8);
+					generator.writeStartArray();
+				}
+				WRITER.writeValue(generator, commit);
+			} catch (IOException e) {
+				fail(e);
+			}
+		}
+
+		elapsed += System.nanoTime() - start;
+		event.end(count, failed);
+
+		return getBytesWritten() - written;
+	}
+
+	/**
+	 * @return number of commits written
+	 */
+	public int getCount() {
+		return summary.getCount();
+	}
+
+	/**
+	 * @return the summary of the commits written
+	 */
+	public RoundtableChangeLogSummary getSummary() {
+		return summary;
+	}
+
+	/**
+	 * @return number of bytes written, before compression
+	 */
+	public long getBytesWritten() {
+		if (generator == null) {
+			return counter != null ? counter.getByteCount() : 0;
+		}
+		return counter.getByteCount() + generator.getOutputBuffered();
+	}
+
+	/**
+	 * @return nanoseconds spent writing
+	 */
+	public long getElapsed() {
+		return elapsed;
+	}
+
+	@Override
+	public void close() {
+		if (generator == null) {
+			return;
+		}
+
+		long start = System.nanoTime();
+
+		try {
+			if (!failed) {
+				generator.writeEndArray();
+			}
+			generator.close();
+		} catch (IOException e) {
+			fail(e);
+		} finally {
+			generator = null;
+			elapsed += System.nanoTime() - start;
+		}
+	}
+
+	private void fail(IOException e) {
+		failed = true;
+		listener.error("Error writing the change log file: \"%s\".", e.getMessage());
+	}
+}
@@ -0,0 +1,929 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.CheckForNull;
+
+import hudson.EnvVars;
+import hudson.Util;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import hudson.util.Secret;
+import jenkins.MasterToSlaveFileCallable;
+import ro.acorn.roundtable.model.ICommit;
+import ro.acorn.roundtable.rtbclient.IRoundtableClient;
+import ro.acorn.roundtable.rtbclient.RoundtableException;
+import ro.acorn.roundtable.rtbclient.UserPasswordCredentials;
+import ro.acorn.roundtable.rtbclient.command.impl.BranchCopyCommand;
+import ro.acorn.roundtable.rtbclient.command.impl.CheckoutCommand;
+import ro.acorn.roundtable.rtbclient.command.impl.FetchCommand;
+import ro.acorn.roundtable.rtbclient.impl.RoundtableClient;
+
+/**
+ * The remote/branch/fetch/checkout sequence of a {@link RoundtableCommanderSCM}
+ * with everything resolved on the controller (credentials, environment), so it
+ * can run either on the controller or on the agent next to the workspace.
+ */
+public class RoundtableCheckout implements Serializable {
+
+	private static final long serialVersionUID = 2614513296584437158L;
+
+	/**
+	 * Retries of a failed workspace listing or fetch.
+	 */
+	public static final int DEFAULT_RETRIES = 2;
+
+	/**
+	 * Delay before the first retry, doubled for each of the next ones.
+	 */
+	public static final int DEFAULT_RETRY_DELAY_SECONDS = 1;
+
+	private static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+	/**
+	 * Wait for the interrupted fetches before their clients are given back.
+	 */
+	private static final long FETCH_TERMINATION_SECONDS = 30;
+
+	private final List<Remote> remotes;
+	private final EnvVars envs;
+	private final String initCheckout;
+	private final int shallowDepth;
+	private final int branchCacheSeconds;
+	private boolean compressChangeLog;
+	private int retries = DEFAULT_RETRIES;
+	private int retryDelaySeconds = DEFAULT_RETRY_DELAY_SECONDS;
+	private final Map<String, Map<String, Integer>> lastRevisions = new HashMap<>();
+	private String job;
+	private final Set<String> singleSessionUrls = new HashSet<>();
+	private transient RoundtableMetrics metrics;
+	private transient RoundtableServerLimiter limiter;
+	private transient WorkerClients workerClients;
+
+	public RoundtableCheckout(List<Remote> remotes, EnvVars envs, String initCheckout, int shallowDepth,
+			int branchCacheSeconds) {
+		this.remotes = new ArrayList<>(remotes);
+		this.envs = envs;
+		this.initCheckout = initCheckout;
+		this.shallowDepth = shallowDepth;
+		this.branchCacheSeconds = branchCacheSeconds;
+	}
+
+	/**
+	 * Set the registry of the client operation latencies, not sent to agents.
+	 *
+	 * @param metrics the registry of the running JVM
+	 */
+	public void setMetrics(RoundtableMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * @param job full name of the job, recorded in the flight recorder events
+	 */
+	public void setJob(String job) {
+		this.job = job;
+	}
+
+	/**
+	 * Set the limiter of the sessions to each server, not sent to agents.
+	 *
+	 * @param limiter the controller limiter
+	 */
+	public void setLimiter(RoundtableServerLimiter limiter) {
+		this.limiter = limiter;
+	}
+
+	/**
+	 * Set where the workspaces fetched in parallel take their own client from,
+	 * they all share the client of the checkout otherwise.
+	 *
+	 * @param workerClients borrows the client of each fetch worker
+	 */
+	public void setWorkerClients(WorkerClients workerClients) {
+		this.workerClients = workerClients;
+	}
+
+	public void setCompressChangeLog(boolean compressChangeLog) {
+		this.compressChangeLog = compressChangeLog;
+	}
+
+	/**
+	 * @param retries           retries of a failed workspace listing or fetch
+	 * @param retryDelaySeconds delay before the first retry
+	 */
+	public void setRetries(int retries, int retryDelaySeconds) {
+		this.retries = Math.max(0, retries);
+		this.retryDelaySeconds = Math.max(0, retryDelaySeconds);
+	}
+
+	/**
+	 * Set the revisions fetched by the previous build, only newer commits are
+	 * reported for the workspaces already fetched.
+	 *
+	 * @param revisions last fetched revision by remote key and workspace, see
+	 *                  {@link Remote#getKey()}
+	 */
+	public void setLastRevisions(Map<String, ? extends Map<String, Integer>> revisions) {
+		lastRevisions.clear();
+		revisions.forEach((remote, branches) -> lastRevisions.put(remote, new HashMap<>(branches)));
+	}
+
+	/**
+	 * Fetch all matching workspaces of every remote, check out the initial
+	 * workspace and write the change log.
+	 *
+	 * @param client        client bound to the workspace folder, its messages
+	 *                      are expected to reach the listener already
+	 * @param clientLog     logger of the client messages, told about the
+	 *                      checkout phases, can be {@code null}
+	 * @param listener      build listener
+	 * @param changelogFile file to write the change log to, local to the running
+	 *                      JVM
+	 * @return the checkout summary
+	 */
+	public Result execute(IRoundtableClient client, @CheckForNull RTBTaskListener clientLog, TaskListener listener,
+			File changelogFile) throws IOException, InterruptedException {
+		return execute(new Result(), client, clientLog, listener, changelogFile);
+	}
+
+	private Result execute(Result result, IRoundtableClient client, @CheckForNull RTBTaskListener clientLog,
+			TaskListener listener, File changelogFile) throws IOException, InterruptedException {
+		// on an agent the result takes the latencies to the controller registry
+		if (metrics == null) {
+			metrics = result.metrics;
+		}
+
+		try (RoundtableChangeLogWriter changelog = new RoundtableChangeLogWriter(changelogFile, listener,
+				compressChangeLog)) {
+			String initWorkspace = initCheckout;
+			LinkedHashMap<String, Integer> matchingBranches = new LinkedHashMap<>();
+			LocalIndex index = new LocalIndex(client, metrics, job);
+
+			changelog.setJob(job);
+
+			for (Remote remote : remotes) {
+				UserPasswordCredentials credentials = remote.getCredentials();
+				String name = remote.getName();
+				CheckoutTimings.RemoteTimings remoteTimings = result.timings.remote(name);
+
+				long start = System.nanoTime();
+
+				phase(clientLog, "remotes");
+				ensureRemote(client, index, remote);
+
+				start = result.addTiming(remoteTimings, "remotes", start);
+				phase(clientLog, "branches");
+
+				LinkedHashMap<String, Integer> remoteMatchingBranches = matchBranches(remote,
+						listBranches(client, remote, credentials, listener));
+
+				start = result.addTiming(remoteTimings, "branches", start);
+				phase(clientLog, "fetch");
+
+				LinkedHashMap<String, Integer> heads = new LinkedHashMap<>();
+
+				matchingBranches.putAll(remoteMatchingBranches);
+				fetchBranches(client, index, remoteMatchingBranches, remote, credentials, heads, remoteTimings,
+						changelog, listener);
+				result.revisions.put(remote.getKey(), heads);
+
+				result.addTiming(remoteTimings, "fetch", start);
+			}
+
+			// check out the first branch that matched by default
+			if ((initWorkspace == null || initWorkspace.isBlank())) {
+				initWorkspace = matchingBranches.keySet().stream().findFirst().orElse(null);
+			}
+
+			long start = System.nanoTime();
+
+			phase(clientLog, "checkout");
+			// not limited, the checkout only works on the local repository
+			if (initWorkspace != null) {
+				String workspace = initWorkspace;
+				timedRun(metrics, event("checkout", RoundtableMetrics.LOCAL).workspace(workspace, 0),
+						() -> client.checkout(new CheckoutCommand(workspace, null, null, true, true, false)));
+			}
+
+			result.addTiming(null, "checkout", start);
+			phase(clientLog, null);
+
+			changelog.close();
+
+			result.timings.add("changelog", TimeUnit.NANOSECONDS.toMillis(changelog.getElapsed()));
+			result.checkedOut = initWorkspace;
+			result.commits = changelog.getCount();
+			result.summary = changelog.getSummary();
+
+		} catch (RoundtableException | RoundtableCircuitBreaker.UnavailableException e) {
+			throw new IOException(e.getMessage());
+		}
+
+		return result;
+	}
+
+	/**
+	 * Read the head revision of every matching workspace without touching the
+	 * build workspace, the remote workspaces are fetched with a depth of one in
+	 * the folder of the given client.
+	 *
+	 * @param client   client bound to a polling folder
+	 * @param listener polling listener
+	 * @return head revision by remote key and workspace, {@link RoundtableRevisionState#UNKNOWN}
+	 *         when nothing new was received for a workspace
+	 */
+	public Map<String, Map<String, Integer>> poll(IRoundtableClient client, TaskListener listener)
+			throws IOException, InterruptedException {
+		Map<String, Map<String, Integer>> revisions = new LinkedHashMap<>();
+
+		// polling runs on the controller
+		if (metrics == null) {
+			metrics = RoundtableMetrics.get();
+		}
+
+		try {
+			LocalIndex index = new LocalIndex(client, metrics, job);
+
+			for (Remote remote : remotes) {
+				UserPasswordCredentials credentials = remote.getCredentials();
+				Map<String, Integer> heads = new LinkedHashMap<>();
+
+				ensureRemote(client, index, remote);
+
+				for (String branch : matchBranches(remote, listBranches(client, remote, credentials, listener))
+						.keySet()) {
+					Collection<ICommit> commits = retried(remote, listener, () -> timed(metrics,
+							event("fetch", remote.getUrl()).remote(remote.getName()).workspace(branch, 1),
+							() -> client.fetch(new FetchCommand(String.format("remotes/%s/%s", remote.getName(), branch),
+									credentials, false, false, true, 1, true, false))));
+
+					heads.put(branch, headRevision(commits));
+				}
+
+				revisions.put(remote.getKey(), heads);
+			}
+		} catch (RoundtableException | RoundtableCircuitBreaker.UnavailableException e) {
+			throw new IOException(e.getMessage());
+		}
+
+		return revisions;
+	}
+
+	/**
+	 * Take a session to each server for the whole checkout, used when the
+	 * checkout runs on an agent where the sessions cannot be limited call by
+	 * call. The workspaces of a limited server are then fetched one at a time,
+	 * whatever the fetch concurrency of the remote.
+	 *
+	 * @param listener told when the build has to wait
+	 * @return the session permits, released when closed
+	 */
+	public RoundtableServerLimiter.Permit acquireSessions(TaskListener listener) throws InterruptedException {
+		if (limiter == null) {
+			return RoundtableServerLimiter.Permit.NONE;
+		}
+
+		Map<String, Integer> servers = new HashMap<>();
+
+		// a remote without limit does not lift the limit of another one
+		remotes.stream().filter(r -> r.getUrl() != null).forEach(r -> servers.merge(r.getUrl(),
+				r.getMaxConnections(), (a, b) -> a <= 0 ? b : b <= 0 ? a : Math.min(a, b)));
+		RoundtableServerLimiter.Permit permit = limiter.acquireAll(servers, listener, metrics);
+
+		singleSessionUrls.clear();
+		servers.keySet().stream().filter(permit::covers).forEach(singleSessionUrls::add);
+		return permit;
+	}
+
+	/**
+	 * Call the server within the session limit of the remote. Nothing is limited
+	 * on agents, the controller holds the sessions for the whole checkout.
+	 */
+	private <T, E extends Exception> T limited(Remote remote, TaskListener listener, ClientCall<T, E> call)
+			throws E, InterruptedException {
+		if (limiter == null) {
+			return call.call();
+		}
+
+		try (RoundtableServerLimiter.Permit permit = limiter.acquire(remote.getUrl(), remote.getMaxConnections(),
+				listener, metrics)) {
+			return call.call();
+		}
+	}
+
+	/**
+	 * Call the server, retrying a failed call with an exponential backoff and
+	 * jitter unless the server keeps failing for every build. Only meant for
+	 * calls that can be repeated.
+	 */
+	private <T, E extends Exception> T retried(Remote remote, TaskListener listener, ClientCall<T, E> call)
+			throws E, InterruptedException {
+		RoundtableCircuitBreaker breaker = RoundtableCircuitBreaker.get();
+		String url = remote.getUrl();
+
+		for (int attempt = 1;; attempt++) {
+			boolean probe = breaker.allow(url);
+			boolean reached = false;
+			boolean failed = false;
+
+			try {
+				T value = limited(remote, listener, call);
+				reached = true;
+				return value;
+			} catch (Exception e) {
+				if (!isRetryable(e)) {
+					// the server answered, like for wrong credentials, retrying would not help
+					reached = e instanceof RoundtableException;
+					throw e;
+				}
+
+				breaker.failure(url);
+				failed = true;
+
+				if (attempt > retries) {
+					throw e;
+				}
+
+				long delay = retryDelay(attempt);
+
+				listener.getLogger().printf("Roundtable call to %s failed: %s, retrying in %d ms (%d/%d)...%n",
+						url, e.getMessage(), delay, attempt, retries);
+				Thread.sleep(delay);
+			} finally {
+				if (reached) {
+					breaker.success(url);
+				} else if (probe && !failed) {
+					breaker.abandon(url);
+				}
+			}
+		}
+	}
+
+	private static boolean isRetryable(Exception e) {
+		return (e instanceof RoundtableException || e instanceof IOException || e instanceof UncheckedIOException)
+				&& RoundtableCircuitBreaker.isServerFailure(e);
+	}
+
+	/**
+	 * @return the delay doubled for each attempt, between half and all of it so
+	 *         the builds waiting on the same server do not retry together
+	 */
+	private long retryDelay(int attempt) {
+		long delay = Math.min(MAX_RETRY_DELAY_MILLIS,
+				TimeUnit.SECONDS.toMillis(retryDelaySeconds) << Math.min(attempt - 1, 16));
+
+		return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+	}
+
+	private RoundtableEvent event(String operation, String url) {
+		return new RoundtableEvent(operation, job, url);
+	}
+
+	/**
+	 * Call the client, record the operation latency and emit its flight recorder
+	 * event.
+	 */
+	static <T, E extends Exception> T timed(RoundtableMetrics metrics, RoundtableEvent event, ClientCall<T, E> call)
+			throws E {
+		long start = System.nanoTime();
+		boolean error = true;
+		int count = 0;
+
+		event.begin();
+		try {
+			T value = call.call();
+			error = false;
+			count = value instanceof Collection ? ((Collection<?>) value).size() : 0;
+			return value;
+		} finally {
+			event.end(count, error);
+			if (metrics != null) {
+				metrics.record(event.url, event.operation, System.nanoTime() - start, error);
+			}
+		}
+	}
+
+	static <E extends Exception> void timedRun(RoundtableMetrics metrics, RoundtableEvent event, ClientRun<E> run)
+			throws E {
+		timed(metrics, event, () -> {
+			run.run();
+			return null;
+		});
+	}
+
+	static <E extends Exception> void timedRun(RoundtableMetrics metrics, String url, String operation,
+			ClientRun<E> run) throws E {
+		timedRun(metrics, new RoundtableEvent(operation, null, url), run);
+	}
+
+	@FunctionalInterface
+	interface ClientCall<T, E extends Exception> {
+		T call() throws E;
+	}
+
+	@FunctionalInterface
+	interface ClientRun<E extends Exception> {
+		void run() throws E;
+	}
+
+	private static void phase(RTBTaskListener clientLog, String phase) {
+		if (clientLog != null) {
+			clientLog.phase(phase);
+			clientLog.flush();
+		}
+	}
+
+	private void ensureRemote(IRoundtableClient client, LocalIndex index, Remote remote) throws RoundtableException {
+		String name = remote.getName();
+
+		// check if remote already exists, else add it here
+		if (!index.hasRemote(name)) {
+			if (!timed(metrics, event("getRemotes", RoundtableMetrics.LOCAL), client::getRemotes).stream()
+					.anyMatch(r -> r.namesMatch(name, r.getName()))) {
+				timedRun(metrics, event("addRemote", remote.getUrl()).remote(name),
+						() -> client.addRemote(name, remote.getUrl()));
+			}
+			index.addRemote(name);
+		}
+	}
+
+	private Collection<String> listBranches(IRoundtableClient client, Remote remote,
+			UserPasswordCredentials credentials, TaskListener listener)
+			throws RoundtableException, InterruptedException {
+		return RoundtableBranchCache.get().getBranches(remote.getUrl(), remote.getIdentity(),
+				TimeUnit.SECONDS.toMillis(branchCacheSeconds),
+				() -> retried(remote, listener,
+						() -> timed(metrics, event("getRemoteBranches", remote.getUrl()).remote(remote.getName()),
+								() -> client.getRemoteBranches(remote.getName(), credentials))));
+	}
+
+	private LinkedHashMap<String, Integer> matchBranches(Remote remote, Collection<String> remoteBranches) {
+		LinkedHashMap<String, Integer> matchingBranches = new LinkedHashMap<>();
+
+		if (remote.getWorkspaces() != null && !remote.getWorkspaces().isEmpty()) {
+			new WorkspaceMatcher(remote.getWorkspaces(), envs).filterMatching(remoteBranches)
+					.forEach((b, spec) -> matchingBranches.put(b, spec.getShallow()));
+		} else {
+			remoteBranches.forEach(b -> {
+				matchingBranches.put(b, shallowDepth);
+			});
+		}
+
+		return matchingBranches;
+	}
+
+	private static int size(Collection<ICommit> commits) {
+		return commits != null ? commits.size() : 0;
+	}
+
+	private static int headRevision(Collection<ICommit> commits) {
+		int head = RoundtableRevisionState.UNKNOWN;
+
+		if (commits != null) {
+			for (ICommit commit : commits) {
+				head = Math.max(head, commit.getRevision());
+			}
+		}
+
+		return head;
+	}
+
+	private void fetchBranches(IRoundtableClient client, LocalIndex index, Map<String, Integer> branches,
+			Remote remote, UserPasswordCredentials credentials, Map<String, Integer> heads,
+			CheckoutTimings.RemoteTimings timings, RoundtableChangeLogWriter changelog, TaskListener listener)
+			throws IOException, InterruptedException {
+		// a single session is held for the agent
+		int concurrency = singleSessionUrls.contains(remote.getUrl()) ? 1 : remote.getFetchConcurrency();
+
+		if (concurrency <= 1 || branches.size() <= 1) {
+			for (Map.Entry<String, Integer> b : branches.entrySet()) {
+				CheckoutTimings.BranchTimings branchTimings = timings.branch(b.getKey());
+				Collection<ICommit> branchCommits = fetchBranch(client, index, b.getKey(), remote, b.getValue(),
+						credentials, branchTimings, listener);
+
+				branchTimings.setWritten(size(branchCommits), changelog.write(branchCommits));
+				heads.put(b.getKey(), headRevision(branchCommits));
+			}
+			return;
+		}
+
+		// a client is not safe for concurrent use, each fetch has one to itself
+		int workers = Math.min(concurrency, branches.size());
+		BlockingQueue<IRoundtableClient> clients = new ArrayBlockingQueue<>(workers);
+		List<RoundtableClientPool.Lease> leases = new ArrayList<>();
+		ExecutorService executor = null;
+		boolean fetched = false;
+
+		clients.add(client);
+
+		try {
+			for (int worker = 1; worker < workers && workerClients != null; worker++) {
+				RoundtableClientPool.Lease lease = workerClients.borrow(worker);
+
+				leases.add(lease);
+				clients.add(lease.getClient());
+				// the line cap of the worker messages is counted for the fetch too
+				phase(lease.getLogger(), "fetch");
+			}
+
+			ExecutorService fetchExecutor = Executors.newFixedThreadPool(clients.size(),
+					new NamingThreadFactory(new DaemonThreadFactory(), "RoundtableCommanderSCM.fetch"));
+
+			executor = fetchExecutor;
+
+			// keep the futures in matching order so the change log does not depend on
+			// which fetch completes first
+			LinkedHashMap<String, Future<Collection<ICommit>>> fetches = new LinkedHashMap<>();
+			LinkedHashMap<String, CheckoutTimings.BranchTimings> fetchTimings = new LinkedHashMap<>();
+			branches.forEach((branch, shallowDepth) -> {
+				CheckoutTimings.BranchTimings branchTimings = timings.branch(branch);
+
+				fetchTimings.put(branch, branchTimings);
+				fetches.put(branch, fetchExecutor.submit(() -> {
+					IRoundtableClient workerClient = clients.take();
+					try {
+						return fetchBranch(workerClient, index, branch, remote, shallowDepth, credentials,
+								branchTimings, listener);
+					} finally {
+						clients.add(workerClient);
+					}
+				}));
+			});
+
+			List<String> failed = new ArrayList<>();
+
+			for (Map.Entry<String, Future<Collection<ICommit>>> fetch : fetches.entrySet()) {
+				try {
+					Collection<ICommit> branchCommits = fetch.getValue().get();
+
+					fetchTimings.get(fetch.getKey()).setWritten(size(branchCommits), changelog.write(branchCommits));
+					heads.put(fetch.getKey(), headRevision(branchCommits));
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause() != null ? e.getCause() : e;
+					listener.error("Error fetching workspace \"%s\" from \"%s\": %s", fetch.getKey(),
+							remote.getName(), cause.getMessage());
+					failed.add(fetch.getKey());
+				}
+			}
+
+			if (!failed.isEmpty()) {
+				throw new IOException(String.format("Failed to fetch %d workspace(s) from \"%s\": %s", failed.size(),
+						remote.getName(), String.join(", ", failed)));
+			}
+			fetched = true;
+		} finally {
+			// a client still used by a fetch that did not stop is not given back
+			boolean stopped = executor == null || shutdown(executor);
+
+			for (RoundtableClientPool.Lease lease : leases) {
+				if (!fetched || !stopped) {
+					lease.invalidate();
+				}
+				phase(lease.getLogger(), null);
+				lease.close();
+			}
+		}
+	}
+
+	private static boolean shutdown(ExecutorService executor) {
+		executor.shutdownNow();
+		try {
+			return executor.awaitTermination(FETCH_TERMINATION_SECONDS, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private Collection<ICommit> fetchBranch(IRoundtableClient client, LocalIndex index, String branch, Remote remote,
+			int shallowDepth, UserPasswordCredentials credentials, CheckoutTimings.BranchTimings timings,
+			TaskListener listener) throws InterruptedException {
+		boolean existing = index.hasBranch(branch);
+		String remoteBranch = String.format("remotes/%s/%s", remote.getName(), branch);
+		long start = System.nanoTime();
+
+		Collection<ICommit> commits = retried(remote, listener,
+				() -> timed(metrics, event("fetch", remote.getUrl()).remote(remote.getName())
+						.workspace(branch, shallowDepth),
+						() -> client.fetch(new FetchCommand(existing ? branch : remoteBranch, credentials, false,
+								false, true, shallowDepth, true, false))));
+
+		timings.setFetchMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+		if (!existing) {
+			start = System.nanoTime();
+			// a copy changes the local workspace list, one at a time
+			synchronized (index) {
+				timedRun(metrics,
+						event("copy", RoundtableMetrics.LOCAL).remote(remote.getName()).workspace(branch, shallowDepth),
+						() -> client.copy(new BranchCopyCommand(remoteBranch, branch, null, true)));
+			}
+			timings.setCopyMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			index.addBranch(branch);
+		}
+
+		// leave out what the previous build already reported, also when the local
+		// workspace was removed since and copied again
+		Map<String, Integer> branches = lastRevisions.get(remote.getKey());
+		Integer lastRevision = branches != null ? branches.get(branch) : null;
+
+		if (commits == null || lastRevision == null || lastRevision == RoundtableRevisionState.UNKNOWN) {
+			return commits;
+		}
+
+		return commits.stream().filter(c -> c.getRevision() > lastRevision).collect(Collectors.toList());
+	}
+
+	/**
+	 * Borrows the client of a parallel fetch worker.
+	 */
+	@FunctionalInterface
+	public interface WorkerClients {
+		RoundtableClientPool.Lease borrow(int worker) throws IOException, InterruptedException;
+	}
+
+	/**
+	 * Snapshot of the local branches and remotes taken once per checkout and
+	 * kept up to date as branches and remotes are added, instead of asking the
+	 * client again for every matching workspace.
+	 */
+	private static class LocalIndex {
+
+		private final Set<String> branches = ConcurrentHashMap.newKeySet();
+		private final Set<String> remotes = ConcurrentHashMap.newKeySet();
+
+		private LocalIndex(IRoundtableClient client, RoundtableMetrics metrics, String job)
+				throws RoundtableException {
+			timed(metrics, new RoundtableEvent("getBranches", job, RoundtableMetrics.LOCAL), client::getBranches)
+					.forEach(b -> branches.add(b.getName()));
+			timed(metrics, new RoundtableEvent("getRemotes", job, RoundtableMetrics.LOCAL), client::getRemotes)
+					.forEach(r -> remotes.add(r.getName()));
+		}
+
+		private boolean hasBranch(String name) {
+			return branches.contains(name);
+		}
+
+		private void addBranch(String name) {
+			branches.add(name);
+		}
+
+		private boolean hasRemote(String name) {
+			return remotes.contains(name);
+		}
+
+		private void addRemote(String name) {
+			remotes.add(name);
+		}
+	}
+
+	/**
+	 * A remote repository with the credentials already resolved on the
+	 * controller.
+	 */
+	public static class Remote implements Serializable {
+
+		private static final long serialVersionUID = -4465326183960101227L;
+
+		private final String name;
+		private final String url;
+		private final String username;
+		private final Secret password;
+		private final List<WorkspaceSpec> workspaces;
+		private final int fetchConcurrency;
+		private final int maxConnections;
+
+		public Remote(String name, String url, String username, Secret password, List<WorkspaceSpec> workspaces,
+				int fetchConcurrency, int maxConnections) {
+			this.name = name;
+			this.url = url;
+			this.username = username;
+			this.password = password;
+			this.workspaces = workspaces != null ? new ArrayList<>(workspaces) : Collections.emptyList();
+			this.fetchConcurrency = fetchConcurrency;
+			this.maxConnections = maxConnections;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getUrl() {
+			return url;
+		}
+
+		/**
+		 * @return the key of the revisions fetched from this remote, the name
+		 *         alone is not enough as several checkouts of a build can use the
+		 *         same name for different servers
+		 */
+		public String getKey() {
+			return RoundtableRevisionState.key(name, url);
+		}
+
+		public List<WorkspaceSpec> getWorkspaces() {
+			return Collections.unmodifiableList(workspaces);
+		}
+
+		public int getFetchConcurrency() {
+			return fetchConcurrency;
+		}
+
+		/**
+		 * @return concurrent sessions to the server allowed, no limit if not
+		 *         positive
+		 */
+		public int getMaxConnections() {
+			return maxConnections;
+		}
+
+		/**
+		 * @return user name and password digest, tells credentials apart without
+		 *         exposing the password
+		 */
+		public String getIdentity() {
+			if (username == null) {
+				return "";
+			}
+			return username + ":" + Util.getDigestOf(password != null ? password.getPlainText() : "");
+		}
+
+		public UserPasswordCredentials getCredentials() {
+			if (username == null) {
+				return null;
+			}
+			return new UserPasswordCredentials(username, password != null ? password.getPlainText() : null);
+		}
+	}
+
+	/**
+	 * Compact outcome of a checkout, the commits themselves go to the change log
+	 * file.
+	 */
+	public static class Result implements Serializable {
+
+		private static final long serialVersionUID = -1254937520271813470L;
+
+		private int commits;
+		private String checkedOut;
+		private RoundtableChangeLogSummary summary;
+		private final CheckoutTimings timings = new CheckoutTimings();
+		private final RoundtableMetrics metrics = new RoundtableMetrics();
+		private final LinkedHashMap<String, Map<String, Integer>> revisions = new LinkedHashMap<>();
+		private Exception failure;
+
+		public int getCommits() {
+			return commits;
+		}
+
+		public String getCheckedOut() {
+			return checkedOut;
+		}
+
+		public RoundtableChangeLogSummary getSummary() {
+			return summary;
+		}
+
+		/**
+		 * @return head revision by remote key and workspace, {@link RoundtableRevisionState#UNKNOWN}
+		 *         when nothing new was fetched for a workspace
+		 */
+		public Map<String, Map<String, Integer>> getRevisions() {
+			return Collections.unmodifiableMap(revisions);
+		}
+
+		/**
+		 * @return elapsed milliseconds for each checkout phase
+		 */
+		public Map<String, Long> getTimings() {
+			return timings.getPhases();
+		}
+
+		/**
+		 * @return client operation latencies recorded by the checkout
+		 */
+		public RoundtableMetrics getMetrics() {
+			return metrics;
+		}
+
+		/**
+		 * @return timings for each phase, remote and workspace
+		 */
+		public CheckoutTimings getCheckoutTimings() {
+			return timings;
+		}
+
+		/**
+		 * Throw the failure of a checkout run on an agent, once its metrics are
+		 * merged.
+		 */
+		public void rethrow() throws IOException {
+			if (failure instanceof IOException) {
+				throw (IOException) failure;
+			}
+			if (failure instanceof RuntimeException) {
+				throw (RuntimeException) failure;
+			}
+		}
+
+		private long addTiming(CheckoutTimings.RemoteTimings remote, String phase, long start) {
+			long now = System.nanoTime();
+			long millis = TimeUnit.NANOSECONDS.toMillis(now - start);
+
+			timings.add(phase, millis);
+			if (remote != null) {
+				remote.add(phase, millis);
+			}
+			return now;
+		}
+
+		/**
+		 * @return commits and workspaces fetched, the phase timings are kept in
+		 *         the build data
+		 */
+		@Override
+		public String toString() {
+			int workspaces = revisions.values().stream().mapToInt(Map::size).sum();
+
+			return String.format("%d new commit(s) in %d workspace(s)%s", commits, workspaces,
+					checkedOut != null ? ", checked out \"" + checkedOut + "\"" : "");
+		}
+	}
+
+	/**
+	 * Runs the whole checkout on the agent, only the {@link Result} travels back
+	 * through the remoting channel. A failed checkout returns its failure in the
+	 * result, with the latencies recorded until then.
+	 */
+	public static class AgentCallable extends MasterToSlaveFileCallable<Result> {
+
+		private static final long serialVersionUID = 5808412357725372316L;
+
+		private final RoundtableCheckout checkout;
+		private final String regData;
+		private final TaskListener listener;
+		private final String changelogPath;
+		private final int poolSize;
+		private final int poolIdleMinutes;
+
+		public AgentCallable(RoundtableCheckout checkout, String regData, TaskListener listener,
+				String changelogPath, int poolSize, int poolIdleMinutes) {
+			this.checkout = checkout;
+			this.regData = regData;
+			this.listener = listener;
+			this.changelogPath = changelogPath;
+			this.poolSize = poolSize;
+			this.poolIdleMinutes = poolIdleMinutes;
+		}
+
+		@Override
+		public Result invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+			RoundtableClientPool pool = RoundtableClientPool.get();
+			Result result = new Result();
+			pool.configure(poolSize, poolIdleMinutes);
+			checkout.setWorkerClients(worker -> pool.borrow(null, f.getAbsolutePath(), worker, regData, listener,
+					() -> RoundtableClient.in(f, regData)));
+
+			// the pool lives in the agent JVM, there is no need to tell agents apart
+			try (RoundtableClientPool.Lease lease = pool.borrow(null, f.getAbsolutePath(), regData, listener,
+					() -> RoundtableClient.in(f, regData))) {
+				try {
+					return checkout.execute(result, lease.getClient(), lease.getLogger(), listener,
+							changelogPath != null ? new File(changelogPath) : null);
+				} catch (IOException | RuntimeException e) {
+					lease.invalidate();
+					result.failure = e;
+					return result;
+				} catch (Throwable e) {
+					lease.invalidate();
+					throw e;
+				}
+			}
+		}
+	}
+}
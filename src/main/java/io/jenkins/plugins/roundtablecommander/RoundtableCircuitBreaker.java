@@ -0,0 +1,156 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops calling a Roundtable server that keeps failing, for all builds of the
+ * running JVM.
+ * <p>
+ * After {@link #FAILURE_THRESHOLD} failures in a row the calls to the server
+ * fail right away for {@link #OPEN_MILLIS}, then a single call is let through
+ * to probe the server: the server is used again if it succeeds, the calls keep
+ * failing fast for another period otherwise.
+ * <p>
+ * Only failures to reach the server count, see {@link #isServerFailure}:
+ * errors that would repeat anyway, like wrong credentials or a missing
+ * workspace, must not stop the other jobs using a healthy server.
+ */
+public final class RoundtableCircuitBreaker {
+
+	/**
+	 * Failures in a row before the calls to a server fail fast.
+	 */
+	public static final int FAILURE_THRESHOLD = 5;
+
+	/**
+	 * How long the calls fail fast before the server is probed.
+	 */
+	public static final long OPEN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+	private static final RoundtableCircuitBreaker INSTANCE = new RoundtableCircuitBreaker();
+
+	private final ConcurrentMap<String, State> states = new ConcurrentHashMap<>();
+
+	public static RoundtableCircuitBreaker get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Check the server can be called.
+	 *
+	 * @param url the server URL
+	 * @return the call is the probe of a server failing fast, its outcome has to
+	 *         be reported
+	 * @throws UnavailableException while the calls to the server fail fast
+	 */
+	public boolean allow(String url) {
+		if (url == null) {
+			return false;
+		}
+
+		State state = states.computeIfAbsent(url, u -> new State());
+		long now = System.currentTimeMillis();
+
+		synchronized (state) {
+			if (state.openUntil == 0) {
+				return false;
+			}
+			if (state.probing || now < state.openUntil) {
+				throw new UnavailableException(url, state.failures, Math.max(0, state.openUntil - now));
+			}
+			state.probing = true;
+			return true;
+		}
+	}
+
+	/**
+	 * Tell whether a call failed because the server could not be reached, the
+	 * only failures worth a retry. The client does not type its own errors and
+	 * its messages are not stable, so only the network errors in the causes
+	 * tell.
+	 *
+	 * @param e the failure
+	 * @return true for connection, socket and name resolution failures, false
+	 *         for all other errors
+	 */
+	public static boolean isServerFailure(Throwable e) {
+		for (Throwable t = e; t != null; t = t.getCause() != t ? t.getCause() : null) {
+			if (t instanceof SocketException || t instanceof SocketTimeoutException
+					|| t instanceof UnknownHostException) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	public void success(String url) {
+		State state = url != null ? states.get(url) : null;
+
+		if (state != null) {
+			synchronized (state) {
+				state.failures = 0;
+				state.openUntil = 0;
+				state.probing = false;
+			}
+		}
+	}
+
+	public void failure(String url) {
+		if (url == null) {
+			return;
+		}
+
+		State state = states.computeIfAbsent(url, u -> new State());
+
+		synchronized (state) {
+			state.failures++;
+			if (state.probing || state.failures >= FAILURE_THRESHOLD) {
+				state.openUntil = System.currentTimeMillis() + OPEN_MILLIS;
+				state.probing = false;
+			}
+		}
+	}
+
+	/**
+	 * Give up a probe without outcome, the next call probes again.
+	 *
+	 * @param url the server URL
+	 */
+	public void abandon(String url) {
+		State state = url != null ? states.get(url) : null;
+
+		if (state != null) {
+			synchronized (state) {
+				state.probing = false;
+			}
+		}
+	}
+
+	private static final class State {
+
+		private int failures;
+		private long openUntil;
+		private boolean probing;
+	}
+
+	/**
+	 * Thrown instead of calling a server that keeps failing.
+	 */
+	public static class UnavailableException extends RuntimeException {
+
+		private static final long serialVersionUID = -3079406225405213166L;
+
+		private UnavailableException(String url, int failures, long remainingMillis) {
+			super(String.format("Roundtable server %s is unavailable after %d failures in a row, %s.", url, failures,
+					remainingMillis > 0
+							? "not called for another " + TimeUnit.MILLISECONDS.toSeconds(remainingMillis) + " seconds"
+							: "a call is checking it"));
+		}
+	}
+}
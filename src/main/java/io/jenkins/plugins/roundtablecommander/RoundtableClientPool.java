@@ -0,0 +1,292 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+import hudson.model.TaskListener;
+import ro.acorn.roundtable.rtbclient.IRoundtableClient;
+
+/**
+ * Pool of Roundtable clients keyed by agent, workspace path and registration
+ * data so the registration and session setup is not repeated for every build
+ * of the same workspace.
+ * <p>
+ * A client is handed out to only one borrower at a time, idle clients are
+ * evicted after a configurable time and the least recently used ones are
+ * dropped when the pool grows over its maximum size. Each pool lives in the
+ * JVM that borrows from it, the controller or the agent for agent-side
+ * checkout.
+ */
+public final class RoundtableClientPool {
+
+	private static final Logger LOGGER = Logger.getLogger(RoundtableClientPool.class.getName());
+
+	public static final int DEFAULT_MAX_SIZE = 20;
+	public static final int DEFAULT_MAX_IDLE_MINUTES = 30;
+
+	private static final RoundtableClientPool INSTANCE = new RoundtableClientPool();
+
+	/**
+	 * Idle clients, in access order so the eldest entry is the least recently
+	 * used one.
+	 */
+	private final LinkedHashMap<Key, Pooled> idle = new LinkedHashMap<>(16, 0.75f, true);
+
+	private int maxSize = DEFAULT_MAX_SIZE;
+	private long maxIdleMillis = TimeUnit.MINUTES.toMillis(DEFAULT_MAX_IDLE_MINUTES);
+	private volatile Factory factoryOverride;
+
+	private RoundtableClientPool() {
+	}
+
+	public static RoundtableClientPool get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Update the pool limits, a maximum size of zero disables pooling.
+	 *
+	 * @param maxSize        maximum number of idle clients kept
+	 * @param maxIdleMinutes minutes an idle client is kept before eviction
+	 */
+	public synchronized void configure(int maxSize, int maxIdleMinutes) {
+		this.maxSize = Math.max(0, maxSize);
+		this.maxIdleMillis = TimeUnit.MINUTES.toMillis(Math.max(0, maxIdleMinutes));
+		evict(System.currentTimeMillis());
+	}
+
+	/**
+	 * Borrow a client for the given workspace, the client is created by the
+	 * factory if there is no healthy idle one available.
+	 *
+	 * @param node     name of the agent where the workspace is located
+	 * @param path     workspace path, the factory creates a client owned by the
+	 *                 pool and bound to it
+	 * @param regData  Roundtable Commander registration data
+	 * @param listener listener that receives the client messages while borrowed
+	 * @param factory  creates a new client when needed
+	 * @return the lease, must be closed to return the client to the pool
+	 */
+	public Lease borrow(String node, String path, String regData, TaskListener listener, Factory factory)
+			throws IOException, InterruptedException {
+		return borrow(node, path, 0, regData, listener, factory);
+	}
+
+	/**
+	 * Borrow one of the clients of a workspace used at the same time by a build,
+	 * a client is not safe for concurrent use.
+	 *
+	 * @param slot tells apart the clients of the workspace, {@code 0} for the main
+	 *             one
+	 * @see #borrow(String, String, String, TaskListener, Factory)
+	 */
+	public Lease borrow(String node, String path, int slot, String regData, TaskListener listener, Factory factory)
+			throws IOException, InterruptedException {
+		Key key = new Key(node, path, slot, regData);
+		Pooled pooled;
+
+		synchronized (this) {
+			evict(System.currentTimeMillis());
+			pooled = idle.remove(key);
+		}
+
+		if (pooled != null && !pooled.isHealthy()) {
+			LOGGER.log(Level.FINE, "Discarding unhealthy Roundtable client for {0}", key);
+			pooled = null;
+		}
+
+		if (pooled == null) {
+			Factory override = factoryOverride;
+			IRoundtableClient client = override != null ? override.create() : factory.create();
+			RTBTaskListener logger = new RTBTaskListener(TaskListener.NULL);
+
+			client.addLogger(logger);
+			pooled = new Pooled(client, logger);
+		}
+
+		pooled.logger.setListener(listener);
+
+		return new Lease(key, pooled);
+	}
+
+	/**
+	 * Drop all idle clients.
+	 */
+	public synchronized void clear() {
+		idle.clear();
+	}
+
+	/**
+	 * Drop the idle clients bound to a folder, before the folder is removed.
+	 *
+	 * @param path the client folder
+	 */
+	public synchronized void evict(String path) {
+		idle.keySet().removeIf(key -> path.equals(key.path));
+	}
+
+	public synchronized int size() {
+		return idle.size();
+	}
+
+	/**
+	 * Create all new clients with the given factory instead of the one of the
+	 * borrower, used by tests to run builds against a fake client.
+	 *
+	 * @param factory the factory, {@code null} to restore the default behavior
+	 */
+	@Restricted(NoExternalUse.class)
+	public void setFactoryOverride(Factory factory) {
+		this.factoryOverride = factory;
+		clear();
+	}
+
+	private void release(Key key, Pooled pooled) {
+		pooled.logger.setListener(TaskListener.NULL);
+		pooled.lastUsed = System.currentTimeMillis();
+
+		synchronized (this) {
+			// another build of the same workspace could have returned a client already
+			if (maxSize > 0 && !idle.containsKey(key)) {
+				idle.put(key, pooled);
+			}
+			evict(pooled.lastUsed);
+		}
+	}
+
+	private void evict(long now) {
+		for (Iterator<Pooled> it = idle.values().iterator(); it.hasNext();) {
+			if (now - it.next().lastUsed > maxIdleMillis) {
+				it.remove();
+			}
+		}
+
+		if (idle.size() > maxSize) {
+			List<Key> eldest = new ArrayList<>(idle.keySet()).subList(0, idle.size() - maxSize);
+			eldest.forEach(idle::remove);
+		}
+	}
+
+	@FunctionalInterface
+	public interface Factory {
+		IRoundtableClient create() throws IOException, InterruptedException;
+	}
+
+	/**
+	 * A borrowed client, closing the lease returns the client to the pool unless
+	 * it was invalidated.
+	 */
+	public final class Lease implements AutoCloseable {
+
+		private final Key key;
+		private final Pooled pooled;
+		private boolean valid = true;
+		private boolean closed;
+
+		private Lease(Key key, Pooled pooled) {
+			this.key = key;
+			this.pooled = pooled;
+		}
+
+		public IRoundtableClient getClient() {
+			return pooled.client;
+		}
+
+		/**
+		 * @return the logger sending the client messages to the borrower listener
+		 */
+		public RTBTaskListener getLogger() {
+			return pooled.logger;
+		}
+
+		/**
+		 * Mark the client as broken so it is not returned to the pool.
+		 */
+		public void invalidate() {
+			valid = false;
+		}
+
+		@Override
+		public void close() {
+			if (closed) {
+				return;
+			}
+			closed = true;
+
+			if (valid) {
+				release(key, pooled);
+			} else {
+				pooled.logger.setListener(TaskListener.NULL);
+			}
+		}
+	}
+
+	private static final class Pooled {
+
+		private final IRoundtableClient client;
+		private final RTBTaskListener logger;
+		private long lastUsed = System.currentTimeMillis();
+
+		private Pooled(IRoundtableClient client, RTBTaskListener logger) {
+			this.client = client;
+			this.logger = logger;
+		}
+
+		private boolean isHealthy() {
+			try {
+				client.getRemotes();
+				return true;
+			} catch (Exception e) {
+				return false;
+			}
+		}
+	}
+
+	private static final class Key {
+
+		private final String node;
+		private final String path;
+		private final int slot;
+		private final String regData;
+
+		private Key(String node, String path, int slot, String regData) {
+			this.node = node != null ? node : "";
+			this.path = path;
+			this.slot = slot;
+			this.regData = regData;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return node.equals(other.node) && Objects.equals(path, other.path) && slot == other.slot
+					&& Objects.equals(regData, other.regData);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(node, path, slot, regData);
+		}
+
+		@Override
+		public String toString() {
+			return slot > 0 ? node + ":" + path + "#" + slot : node + ":" + path;
+		}
+	}
+}
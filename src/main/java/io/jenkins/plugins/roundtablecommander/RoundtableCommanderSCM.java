@@ -6,35 +6,42 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 
+import org.acegisecurity.Authentication;
 import org.jenkinsci.plugins.scriptsecurity.sandbox.whitelists.Whitelisted;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.interceptor.RequirePOST;
 
 import com.cloudbees.plugins.credentials.CredentialsMatcher;
 import com.cloudbees.plugins.credentials.CredentialsMatchers;
 import com.cloudbees.plugins.credentials.CredentialsProvider;
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 import com.cloudbees.plugins.credentials.domains.URIRequirementBuilder;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.EnvVars;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.Launcher;
+import hudson.Util;
+import hudson.model.Computer;
 import hudson.model.Job;
 import hudson.model.Queue;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 import hudson.remoting.VirtualChannel;
 import hudson.scm.ChangeLogParser;
+import hudson.scm.PollingResult;
 import hudson.scm.SCM;
 import hudson.scm.SCMDescriptor;
 import hudson.scm.SCMRevisionState;
@@ -42,14 +49,8 @@ import hudson.security.ACL;
 import hudson.security.Permission;
 import jenkins.MasterToSlaveFileCallable;
 import jenkins.model.Jenkins;
+import jenkins.slaves.WorkspaceList;
 import net.sf.json.JSONObject;
-import ro.acorn.roundtable.model.ICommit;
-import ro.acorn.roundtable.rtbclient.IRoundtableClient;
-import ro.acorn.roundtable.rtbclient.RoundtableException;
-import ro.acorn.roundtable.rtbclient.UserPasswordCredentials;
-import ro.acorn.roundtable.rtbclient.command.impl.BranchCopyCommand;
-import ro.acorn.roundtable.rtbclient.command.impl.CheckoutCommand;
-import ro.acorn.roundtable.rtbclient.command.impl.FetchCommand;
 import ro.acorn.roundtable.rtbclient.impl.RoundtableClient;
 
 public class RoundtableCommanderSCM extends SCM implements Serializable {
@@ -84,64 +85,205 @@ public class RoundtableCommanderSCM extends SCM implements Serializable {
 			@Nonnull TaskListener listener, @CheckForNull File changelogFile, @CheckForNull SCMRevisionState baseline)
 			throws IOException, InterruptedException {
 
-		try {
-			IRoundtableClient client = workspace.act(new RoundtableClientMasterToSlaveFileCallable(getRegData()));
+		Run<?, ?> previousBuild = build.getPreviousBuild();
+		BuildData previous = previousBuild != null ? previousBuild.getAction(BuildData.class) : null;
+		RoundtableCheckout checkout = createCheckout(build.getParent(), build.getEnvironment(listener),
+				isAgentCheckout());
+		RoundtableCheckout.Result result;
+		long start = System.nanoTime();
 
-			client.addLogger(new RTBTaskListener(listener));
+		if (previous != null) {
+			checkout.setLastRevisions(previous.getRevisions());
+		}
 
-			final Job<?, ?> job = build.getParent();
-			final EnvVars envs = build.getEnvironment(listener);
-			String initWorkspace = getInitCheckout();
-			LinkedHashMap<String, Integer> matchingBranches = new LinkedHashMap<>();
-			List<ICommit> commits = new ArrayList<>();
+		if (isAgentCheckout()) {
+			result = checkoutOnAgent(checkout, workspace, listener, changelogFile);
+		} else {
+			checkout.setWorkerClients(worker -> borrowClient(workspace, worker, listener));
+			try (RoundtableClientPool.Lease lease = borrowClient(workspace, listener)) {
+				try {
+					result = checkout.execute(lease.getClient(), lease.getLogger(), listener, changelogFile);
+				} catch (Throwable e) {
+					// the client may be left in the middle of a call, even when interrupted
+					lease.invalidate();
+					throw e;
+				}
+			}
+		}
 
-			for (RemoteConfig remoteConfig : getRemoteConfigs()) {
-				UserPasswordCredentials credentials = getCredentials(job, remoteConfig);
-				String name = remoteConfig.getName() != null ? remoteConfig.getName() : "origin";
+		listener.getLogger().printf("Roundtable checkout done in %d ms: %s.%n",
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), result);
 
-				// check if remote already exists, else add it here
-				if (!client.getRemotes().stream().anyMatch(r -> r.namesMatch(name, r.getName()))) {
-					client.addRemote(name, remoteConfig.getUrl());
-				}
+		if (changelogFile != null && result.getCommits() > 0 && result.getSummary() != null) {
+			result.getSummary().save(changelogFile);
+		}
 
-				Collection<String> remoteBranches = client.getRemoteBranches(name, credentials);
+		BuildData data = build.getAction(BuildData.class);
 
-				if (remoteConfig.getWorkspaces() != null && !remoteConfig.getWorkspaces().isEmpty()) {
-					remoteConfig.getWorkspaces().forEach(spec -> {
-						spec.filterMatching(remoteBranches, envs).forEach(b -> {
-							matchingBranches.put(b, spec.getShallow());
-						});
-					});
-				} else {
-					remoteBranches.forEach(b -> {
-						matchingBranches.put(b, getShallowDepth());
-					});
-				}
+		if (data == null) {
+			data = new BuildData();
+			build.addAction(data);
+		}
+		data.record(result.getRevisions(), previous);
+		data.addCheckout(result.getCheckoutTimings());
+	}
 
-				matchingBranches.entrySet().forEach(b -> {
-					commits.addAll(fetchBranch(client, b.getKey(), name, b.getValue(), credentials));
-				});
+	@Override
+	public SCMRevisionState calcRevisionsFromBuild(Run<?, ?> build, FilePath workspace, Launcher launcher,
+			TaskListener listener) throws IOException, InterruptedException {
+		BuildData data = build.getAction(BuildData.class);
+		return data != null ? RoundtableRevisionState.of(data.getRevisions(), null) : SCMRevisionState.NONE;
+	}
+
+	@Override
+	public PollingResult compareRemoteRevisionWith(@Nonnull Job<?, ?> project, @CheckForNull Launcher launcher,
+			@CheckForNull FilePath workspace, @Nonnull TaskListener listener, @Nonnull SCMRevisionState baseline)
+			throws IOException, InterruptedException {
+		if (!(baseline instanceof RoundtableRevisionState)) {
+			listener.getLogger().println("[poll] No previous Roundtable revisions recorded, a build is needed.");
+			return PollingResult.BUILD_NOW;
+		}
+
+		Run<?, ?> lastBuild = project.getLastBuild();
+		EnvVars envs = lastBuild != null ? lastBuild.getEnvironment(listener)
+				: project.getEnvironment(Jenkins.get(), listener);
+		RoundtableCheckout checkout = createCheckout(project, envs, false);
+		RoundtableRevisionState remote;
+
+		try (RoundtableClientPool.Lease lease = borrowPollingClient(project, listener)) {
+			try {
+				remote = RoundtableRevisionState.of(checkout.poll(lease.getClient(), listener), baseline);
+			} catch (Throwable e) {
+				lease.invalidate();
+				throw e;
 			}
+		}
+
+		return new PollingResult(baseline, remote, remote.compareTo((RoundtableRevisionState) baseline));
+	}
+
+	/**
+	 * @param onAgent whether the checkout runs on the agent, where the branch
+	 *                cache of the controller is not available
+	 */
+	private RoundtableCheckout createCheckout(Job<?, ?> job, EnvVars envs, boolean onAgent) {
+		// an agent JVM would keep its own cache, not cleared from the controller
+		RoundtableCheckout checkout = new RoundtableCheckout(resolveRemotes(job), envs, getInitCheckout(),
+				getShallowDepth(), onAgent ? 0 : getBranchCacheSeconds());
+
+		checkout.setCompressChangeLog(isCompressChangeLog());
+		checkout.setRetries(getRetries(), getRetryDelaySeconds());
+		checkout.setJob(job.getFullName());
+		checkout.setMetrics(RoundtableMetrics.get());
+		checkout.setLimiter(RoundtableServerLimiter.get());
+		return checkout;
+	}
+
+	/**
+	 * Borrow a client bound to a polling folder of the job on the controller, the
+	 * build workspace is not needed for polling.
+	 */
+	private RoundtableClientPool.Lease borrowPollingClient(Job<?, ?> job, TaskListener listener)
+			throws IOException, InterruptedException {
+		File folder = RoundtablePollingFolder.of(job.getFullName());
+		String regData = getRegData();
+		RoundtableClientPool pool = RoundtableClientPool.get();
+
+		if (!folder.isDirectory() && !folder.mkdirs()) {
+			throw new IOException("Cannot create the polling folder: " + folder);
+		}
+
+		pool.configure(getClientPoolSize(), getClientPoolIdleMinutes());
+
+		return pool.borrow(null, folder.getAbsolutePath(), regData, listener,
+				() -> RoundtableClient.in(folder, regData));
+	}
 
-			// check out the first branch that matched by default
-			if ((initWorkspace == null || initWorkspace.isBlank())) {
-				initWorkspace = matchingBranches.keySet().stream().findFirst().orElse(null);
+	/**
+	 * Borrow a client for the workspace from the controller pool, a new client is
+	 * created on the agent if none is available.
+	 */
+	RoundtableClientPool.Lease borrowClient(FilePath workspace, TaskListener listener)
+			throws IOException, InterruptedException {
+		return borrowClient(workspace, 0, listener);
+	}
+
+	private RoundtableClientPool.Lease borrowClient(FilePath workspace, int slot, TaskListener listener)
+			throws IOException, InterruptedException {
+		Computer computer = workspace.toComputer();
+		String regData = getRegData();
+		RoundtableClientPool pool = RoundtableClientPool.get();
+
+		pool.configure(getClientPoolSize(), getClientPoolIdleMinutes());
+
+		return pool.borrow(computer != null ? computer.getName() : null, workspace.getRemote(), slot, regData,
+				listener, () -> workspace.act(new RoundtableClientMasterToSlaveFileCallable(regData)));
+	}
+
+	private RoundtableCheckout.Result checkoutOnAgent(RoundtableCheckout checkout, FilePath workspace,
+			TaskListener listener, File changelogFile) throws IOException, InterruptedException {
+		FilePath changelog = null;
+
+		if (changelogFile != null) {
+			FilePath tmpDir = WorkspaceList.tempDir(workspace);
+			if (tmpDir == null) {
+				throw new IOException("Cannot create a temporary folder for workspace: " + workspace);
+			}
+			tmpDir.mkdirs();
+			changelog = tmpDir.createTempFile("changelog", ".json");
+		}
+
+		try (RoundtableServerLimiter.Permit permit = checkout.acquireSessions(listener)) {
+			RoundtableCheckout.Result result = workspace.act(new RoundtableCheckout.AgentCallable(checkout,
+					getRegData(), listener, changelog != null ? changelog.getRemote() : null, getClientPoolSize(),
+					getClientPoolIdleMinutes()));
+
+			// the latencies of a failed checkout are kept too
+			RoundtableMetrics.get().merge(result.getMetrics());
+			result.rethrow();
+
+			if (changelog != null && result.getCommits() > 0) {
+				changelog.copyTo(new FilePath(changelogFile));
 			}
 
-			if (initWorkspace != null) {
-				client.checkout(new CheckoutCommand(initWorkspace, null, null, true, true, false));
+			return result;
+		} finally {
+			if (changelog != null) {
+				changelog.delete();
 			}
+		}
+	}
+
+	private List<RoundtableCheckout.Remote> resolveRemotes(Job<?, ?> job) {
+		List<RoundtableCheckout.Remote> remotes = new ArrayList<>();
 
-			writeChangeLog(changelogFile, commits, listener);
+		for (RemoteConfig remoteConfig : getRemoteConfigs()) {
+			StandardUsernamePasswordCredentials credentials = getCredentials(job, remoteConfig);
 
-		} catch (RoundtableException e) {
-			throw new IOException(e.getMessage());
+			remotes.add(new RoundtableCheckout.Remote(
+					remoteConfig.getName() != null ? remoteConfig.getName() : "origin", remoteConfig.getUrl(),
+					credentials != null ? credentials.getUsername() : null,
+					credentials != null ? credentials.getPassword() : null, remoteConfig.getWorkspaces(),
+					getFetchConcurrency(remoteConfig), getMaxConnections(remoteConfig)));
 		}
+
+		return remotes;
 	}
 
 	@Override
 	public ChangeLogParser createChangeLogParser() {
-		return new RoundtableChangeLogParser();
+		return new RoundtableChangeLogParser(isResolveAuthors());
+	}
+
+	/**
+	 * Used by the project changes view.
+	 *
+	 * @param builds the builds to show
+	 * @param page   page number from the request
+	 * @return the builds with changes on the requested page
+	 */
+	public RoundtableProjectChanges getChangesPage(Collection<? extends Run<?, ?>> builds, String page) {
+		return RoundtableProjectChanges.of(builds, RoundtableProjectChanges.parsePage(page));
 	}
 
 	@Override
@@ -175,6 +317,47 @@ public class RoundtableCommanderSCM extends SCM implements Serializable {
 		return (descriptor != null && descriptor.isAddTagAction());
 	}
 
+	public boolean isResolveAuthors() {
+		DescriptorImpl descriptor = (DescriptorImpl) getDescriptor();
+		return (descriptor != null && descriptor.isResolveAuthors());
+	}
+
+	public boolean isCompressChangeLog() {
+		DescriptorImpl descriptor = (DescriptorImpl) getDescriptor();
+		return (descriptor != null && descriptor.isCompressChangeLog());
+	}
+
+	public boolean isAgentCheckout() {
+		DescriptorImpl descriptor = (DescriptorImpl) getDescriptor();
+		return (descriptor != null && descriptor.isAgentCheckout());
+	}
+
+	public int getBranchCacheSeconds() {
+		DescriptorImpl descriptor = (DescriptorImpl) getDescriptor();
+		return descriptor != null ? descriptor.getBranchCacheSeconds() : RoundtableBranchCache.DEFAULT_TTL_SECONDS;
+	}
+
+	public int getClientPoolSize() {
+		DescriptorImpl descriptor = (DescriptorImpl) getDescriptor();
+		return descriptor != null ? descriptor.getClientPoolSize() : RoundtableClientPool.DEFAULT_MAX_SIZE;
+	}
+
+	public int getClientPoolIdleMinutes() {
+		DescriptorImpl descriptor = (DescriptorImpl) getDescriptor();
+		return descriptor != null ? descriptor.getClientPoolIdleMinutes()
+				: RoundtableClientPool.DEFAULT_MAX_IDLE_MINUTES;
+	}
+
+	public int getRetries() {
+		DescriptorImpl descriptor = (DescriptorImpl) getDescriptor();
+		return descriptor != null ? descriptor.getRetries() : RoundtableCheckout.DEFAULT_RETRIES;
+	}
+
+	public int getRetryDelaySeconds() {
+		DescriptorImpl descriptor = (DescriptorImpl) getDescriptor();
+		return descriptor != null ? descriptor.getRetryDelaySeconds() : RoundtableCheckout.DEFAULT_RETRY_DELAY_SECONDS;
+	}
+
 	public String getRegData() {
 		DescriptorImpl descriptor = (DescriptorImpl) getDescriptor();
 		return descriptor != null ? descriptor.getRegData() : null;
@@ -185,11 +368,53 @@ public class RoundtableCommanderSCM extends SCM implements Serializable {
 		return descriptor != null ? descriptor.getShallowDepth() : 0;
 	}
 
+	/**
+	 * Number of workspaces fetched in parallel from the given remote, the remote
+	 * configuration takes precedence over the global setting.
+	 * 
+	 * @param remote remote repository configuration
+	 * @return maximum number of concurrent fetches, at least one
+	 */
+	public int getFetchConcurrency(RemoteConfig remote) {
+		if (remote != null && remote.getFetchConcurrency() != null && remote.getFetchConcurrency() > 0) {
+			return remote.getFetchConcurrency();
+		}
+
+		DescriptorImpl descriptor = (DescriptorImpl) getDescriptor();
+		return descriptor != null ? descriptor.getFetchConcurrency() : 1;
+	}
+
+	/**
+	 * Concurrent sessions allowed to the server of the given remote, across all
+	 * builds, the remote configuration takes precedence over the global setting.
+	 * 
+	 * @param remote remote repository configuration
+	 * @return maximum number of sessions, no limit if not positive
+	 */
+	public int getMaxConnections(RemoteConfig remote) {
+		if (remote != null && remote.getMaxConnections() != null && remote.getMaxConnections() > 0) {
+			return remote.getMaxConnections();
+		}
+
+		DescriptorImpl descriptor = (DescriptorImpl) getDescriptor();
+		return descriptor != null ? descriptor.getMaxConnections() : RoundtableServerLimiter.DEFAULT_MAX_CONNECTIONS;
+	}
+
 	@Extension
 	public static final class DescriptorImpl extends SCMDescriptor<RoundtableCommanderSCM> {
 
 		private boolean addTagAction;
+		private boolean agentCheckout;
+		private boolean compressChangeLog;
+		private boolean resolveAuthors;
 		private int shallowDepth;
+		private int fetchConcurrency = 1;
+		private int maxConnections = RoundtableServerLimiter.DEFAULT_MAX_CONNECTIONS;
+		private Integer clientPoolSize;
+		private Integer branchCacheSeconds;
+		private Integer clientPoolIdleMinutes;
+		private Integer retries;
+		private Integer retryDelaySeconds;
 		private String regData;
 
 		public DescriptorImpl() {
@@ -219,6 +444,30 @@ public class RoundtableCommanderSCM extends SCM implements Serializable {
 			this.addTagAction = addTagAction;
 		}
 
+		public boolean isAgentCheckout() {
+			return agentCheckout;
+		}
+
+		public void setAgentCheckout(boolean agentCheckout) {
+			this.agentCheckout = agentCheckout;
+		}
+
+		public boolean isCompressChangeLog() {
+			return compressChangeLog;
+		}
+
+		public void setCompressChangeLog(boolean compressChangeLog) {
+			this.compressChangeLog = compressChangeLog;
+		}
+
+		public boolean isResolveAuthors() {
+			return resolveAuthors;
+		}
+
+		public void setResolveAuthors(boolean resolveAuthors) {
+			this.resolveAuthors = resolveAuthors;
+		}
+
 		public int getShallowDepth() {
 			return shallowDepth;
 		}
@@ -227,6 +476,64 @@ public class RoundtableCommanderSCM extends SCM implements Serializable {
 			this.shallowDepth = shallowDepth;
 		}
 
+		public int getFetchConcurrency() {
+			return Math.max(1, fetchConcurrency);
+		}
+
+		public void setFetchConcurrency(int fetchConcurrency) {
+			this.fetchConcurrency = fetchConcurrency;
+		}
+
+		public int getMaxConnections() {
+			return Math.max(0, maxConnections);
+		}
+
+		public void setMaxConnections(int maxConnections) {
+			this.maxConnections = maxConnections;
+		}
+
+		public int getBranchCacheSeconds() {
+			return branchCacheSeconds != null ? branchCacheSeconds : RoundtableBranchCache.DEFAULT_TTL_SECONDS;
+		}
+
+		public void setBranchCacheSeconds(Integer branchCacheSeconds) {
+			this.branchCacheSeconds = branchCacheSeconds;
+		}
+
+		public int getClientPoolSize() {
+			return clientPoolSize != null ? clientPoolSize : RoundtableClientPool.DEFAULT_MAX_SIZE;
+		}
+
+		public void setClientPoolSize(Integer clientPoolSize) {
+			this.clientPoolSize = clientPoolSize;
+		}
+
+		public int getClientPoolIdleMinutes() {
+			return clientPoolIdleMinutes != null ? clientPoolIdleMinutes
+					: RoundtableClientPool.DEFAULT_MAX_IDLE_MINUTES;
+		}
+
+		public void setClientPoolIdleMinutes(Integer clientPoolIdleMinutes) {
+			this.clientPoolIdleMinutes = clientPoolIdleMinutes;
+		}
+
+		public int getRetries() {
+			return retries != null ? Math.max(0, retries) : RoundtableCheckout.DEFAULT_RETRIES;
+		}
+
+		public void setRetries(Integer retries) {
+			this.retries = retries;
+		}
+
+		public int getRetryDelaySeconds() {
+			return retryDelaySeconds != null ? Math.max(0, retryDelaySeconds)
+					: RoundtableCheckout.DEFAULT_RETRY_DELAY_SECONDS;
+		}
+
+		public void setRetryDelaySeconds(Integer retryDelaySeconds) {
+			this.retryDelaySeconds = retryDelaySeconds;
+		}
+
 		public String getRegData() {
 			return regData;
 		}
@@ -235,6 +542,25 @@ public class RoundtableCommanderSCM extends SCM implements Serializable {
 			this.regData = regData;
 		}
 
+		/**
+		 * Drop the cached remote workspace lists, of one repository if the URL is
+		 * given or all of them otherwise. Meant for repository webhooks and
+		 * administrators.
+		 */
+		@RequirePOST
+		public HttpResponse doInvalidateBranchCache(@QueryParameter String url) {
+			Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+
+			url = Util.fixEmptyAndTrim(url);
+			if (url == null) {
+				RoundtableBranchCache.get().invalidateAll();
+			} else {
+				RoundtableBranchCache.get().invalidate(url);
+			}
+
+			return HttpResponses.ok();
+		}
+
 		@Override
 		public boolean isApplicable(Job project) {
 			return true;
@@ -244,6 +570,9 @@ public class RoundtableCommanderSCM extends SCM implements Serializable {
 		public boolean configure(StaplerRequest req, JSONObject formData) throws FormException {
 			req.bindJSON(this, formData);
 			save();
+			// clients registered with the previous settings must not be reused
+			RoundtableClientPool.get().clear();
+			RoundtableServerLimiter.get().reset();
 			return true;
 		}
 
@@ -265,55 +594,34 @@ public class RoundtableCommanderSCM extends SCM implements Serializable {
 
 	}
 
-	@Override
-	public SCMRevisionState calcRevisionsFromBuild(Run<?, ?> build, FilePath workspace, Launcher launcher,
-			TaskListener listener) throws IOException, InterruptedException {
-		return SCMRevisionState.NONE;
-	}
-
-	private Collection<ICommit> fetchBranch(IRoundtableClient client, String branch, String remote, int shallowDepth,
-			UserPasswordCredentials credentials) {
-		boolean existing = client.getBranches().stream().anyMatch(b -> branch.equals(b.getName()));
-		String remoteBranch = String.format("remotes/%s/%s", remote, branch);
-
-		Collection<ICommit> commits = client.fetch(new FetchCommand(existing ? branch : remoteBranch, credentials,
-				false, false, true, shallowDepth, true, false));
-
-		if (!existing) {
-			client.copy(new BranchCopyCommand(remoteBranch, branch, null, true));
-		}
-
-		return commits;
-	}
-
-	private void writeChangeLog(File changelogFile, Collection<ICommit> commits, TaskListener listener) {
+	private StandardUsernamePasswordCredentials getCredentials(Job<?, ?> job, RemoteConfig remote) {
+		if (remote != null && remote.getCredentialsId() != null) {
+			Authentication authentication = job instanceof Queue.Task
+					? ((Queue.Task) job).getDefaultAuthentication()
+					: ACL.SYSTEM;
 
-		if (commits != null && !commits.isEmpty()) {
+			RoundtableEvent event = new RoundtableEvent("credentials", job.getFullName(), remote.getUrl())
+					.remote(remote.getName());
+			StandardUsernamePasswordCredentials credentials = null;
+			boolean error = true;
 
+			event.begin();
 			try {
-				ObjectMapper mapper = new ObjectMapper();
-				mapper.writeValue(changelogFile, commits);
-			} catch (Exception e) {
-				listener.error("Error writing the change log file: \"%s\".", e.getMessage());
-			}
-		}
-	}
-
-	private UserPasswordCredentials getCredentials(Job<?, ?> job, RemoteConfig remote) {
-		if (remote != null && remote.getCredentialsId() != null) {
-			List<StandardUsernamePasswordCredentials> urlCredentials = CredentialsProvider.lookupCredentials(
-					StandardUsernamePasswordCredentials.class, job,
-					job instanceof Queue.Task ? ((Queue.Task) job).getDefaultAuthentication() : ACL.SYSTEM,
-					URIRequirementBuilder.fromUri(remote.getUrl()).build());
-			CredentialsMatcher ucMatcher = CredentialsMatchers.withId(remote.getCredentialsId());
-			CredentialsMatcher idMatcher = CredentialsMatchers.allOf(ucMatcher,
-					RoundtableCommanderSCM.CREDENTIALS_MATCHER);
-			StandardUsernamePasswordCredentials credentials = CredentialsMatchers.firstOrNull(urlCredentials,
-					idMatcher);
-
-			if (credentials != null) {
-				return new UserPasswordCredentials(credentials.getUsername(), credentials.getPassword().getPlainText());
+				credentials = RoundtableCredentialsCache.get(job, authentication.getName(),
+						remote.getCredentialsId(), remote.getUrl(), () -> {
+							List<StandardUsernamePasswordCredentials> urlCredentials = CredentialsProvider
+									.lookupCredentials(StandardUsernamePasswordCredentials.class, job,
+											authentication, URIRequirementBuilder.fromUri(remote.getUrl()).build());
+							CredentialsMatcher ucMatcher = CredentialsMatchers.withId(remote.getCredentialsId());
+							CredentialsMatcher idMatcher = CredentialsMatchers.allOf(ucMatcher,
+									RoundtableCommanderSCM.CREDENTIALS_MATCHER);
+							return CredentialsMatchers.firstOrNull(urlCredentials, idMatcher);
+						});
+				error = false;
+			} finally {
+				event.end(credentials != null ? 1 : 0, error);
 			}
+			return credentials;
 		}
 
 		return null;
@@ -0,0 +1,126 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Saveable;
+import hudson.model.User;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+
+/**
+ * Bounded cache of the credentials resolved for a remote, keyed by item,
+ * authentication, credentials id and remote URL, so builds and polling do not
+ * repeat the lookup through the folder hierarchy every time.
+ * <p>
+ * The cache is cleared when a credentials store is saved: the system store,
+ * folders and Jenkins itself (folder and global credentials) and users (user
+ * credentials), also when items are renamed or deleted. Entries also expire
+ * after a few minutes for credentials providers that are not stored in
+ * Jenkins.
+ */
+public final class RoundtableCredentialsCache {
+
+	private static final int MAX_SIZE = 1000;
+	private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+	private static final Map<List<String>, Cached> CREDENTIALS = new LinkedHashMap<List<String>, Cached>(64, 0.75f,
+			true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<List<String>, Cached> eldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+
+	private RoundtableCredentialsCache() {
+	}
+
+	/**
+	 * Resolve the credentials of a remote.
+	 *
+	 * @param item           the item using the credentials
+	 * @param authentication name of the authentication used for the lookup
+	 * @param credentialsId  the credentials id
+	 * @param url            the remote URL the domain requirements are built
+	 *                       from
+	 * @param lookup         looks the credentials up when not cached
+	 * @return the credentials, {@code null} if not found
+	 */
+	public static StandardUsernamePasswordCredentials get(Item item, String authentication, String credentialsId,
+			String url, Supplier<StandardUsernamePasswordCredentials> lookup) {
+		List<String> key = Arrays.asList(item != null ? item.getFullName() : null, authentication, credentialsId,
+				url);
+		long now = System.currentTimeMillis();
+		Cached cached;
+
+		synchronized (CREDENTIALS) {
+			cached = CREDENTIALS.get(key);
+		}
+
+		if (cached == null || now - cached.time > TTL_MILLIS) {
+			cached = new Cached(lookup.get(), now);
+
+			synchronized (CREDENTIALS) {
+				CREDENTIALS.put(key, cached);
+			}
+		}
+
+		return cached.credentials;
+	}
+
+	public static void invalidateAll() {
+		synchronized (CREDENTIALS) {
+			CREDENTIALS.clear();
+		}
+	}
+
+	private static final class Cached {
+
+		private final StandardUsernamePasswordCredentials credentials;
+		private final long time;
+
+		private Cached(StandardUsernamePasswordCredentials credentials, long time) {
+			this.credentials = credentials;
+			this.time = time;
+		}
+	}
+
+	@Extension
+	public static class StoreSaveListener extends SaveableListener {
+
+		@Override
+		public void onChange(Saveable o, XmlFile file) {
+			if (o instanceof SystemCredentialsProvider || o instanceof ItemGroup || o instanceof User) {
+				invalidateAll();
+			}
+		}
+	}
+
+	@Extension
+	public static class ItemChangeListener extends ItemListener {
+
+		@Override
+		public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+			invalidateAll();
+		}
+
+		@Override
+		public void onDeleted(Item item) {
+			invalidateAll();
+		}
+	}
+}
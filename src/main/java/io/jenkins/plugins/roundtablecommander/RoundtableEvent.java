@@ -0,0 +1,81 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a Roundtable operation, so the time spent waiting
+ * on the server can be tied to a job, remote and workspace in a recording.
+ * <p>
+ * Nothing is recorded unless the event is enabled. The fields naming the
+ * operation are set when the event is created, only the count and failed
+ * fields are deferred until the event is going to be committed.
+ */
+@Name("io.jenkins.plugins.roundtablecommander.Operation")
+@Label("Roundtable Operation")
+@Category({ "Jenkins", "Roundtable Commander" })
+@Description("Roundtable client call, change log write or parse and credentials lookup")
+@StackTrace(false)
+final class RoundtableEvent extends Event {
+
+	@Label("Operation")
+	String operation;
+
+	@Label("Job")
+	String job;
+
+	@Label("Remote")
+	String remote;
+
+	@Label("URL")
+	String url;
+
+	@Label("Workspace")
+	String workspace;
+
+	@Label("Shallow Depth")
+	int shallowDepth;
+
+	@Label("Count")
+	@Description("Commits fetched or written, workspaces or remotes listed")
+	int count;
+
+	@Label("Failed")
+	boolean failed;
+
+	RoundtableEvent(String operation, String job, String url) {
+		this.operation = operation;
+		this.job = job;
+		this.url = url;
+	}
+
+	RoundtableEvent remote(String remote) {
+		this.remote = remote;
+		return this;
+	}
+
+	RoundtableEvent workspace(String workspace, int shallowDepth) {
+		this.workspace = workspace;
+		this.shallowDepth = shallowDepth;
+		return this;
+	}
+
+	/**
+	 * End the event and commit it if enabled and above the threshold.
+	 *
+	 * @param count  number of items handled
+	 * @param failed the operation failed
+	 */
+	void end(int count, boolean failed) {
+		end();
+		if (shouldCommit()) {
+			this.count = count;
+			this.failed = failed;
+			commit();
+		}
+	}
+}
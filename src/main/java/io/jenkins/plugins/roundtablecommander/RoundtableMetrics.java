@@ -0,0 +1,252 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histograms of the Roundtable client operations by server URL.
+ * <p>
+ * The controller keeps one registry for all builds, see {@link #get()}. A
+ * checkout records in its own registry, merged into the controller one when
+ * the checkout result is back, failed or not, so agent-side checkouts are
+ * counted as well.
+ * Recording is lock-free, the histogram buckets are logarithmic with eight
+ * linear sub-buckets each so the percentiles are within 12.5%.
+ */
+public class RoundtableMetrics implements Serializable {
+
+	private static final long serialVersionUID = -7043713914758611735L;
+
+	/**
+	 * URL of the operations on the local workspace.
+	 */
+	public static final String LOCAL = "local";
+
+	private static final int MAX_SERIES = 500;
+
+	private static final RoundtableMetrics INSTANCE = new RoundtableMetrics();
+
+	private final ConcurrentMap<Series, Histogram> histograms = new ConcurrentHashMap<>();
+
+	public static RoundtableMetrics get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Record an operation.
+	 *
+	 * @param url       server URL, {@link #LOCAL} for workspace operations
+	 * @param operation client operation name
+	 * @param nanos     elapsed time
+	 * @param error     the operation failed
+	 */
+	public void record(String url, String operation, long nanos, boolean error) {
+		histogram(new Series(url, operation)).record(TimeUnit.NANOSECONDS.toMicros(nanos), error);
+	}
+
+	/**
+	 * Add the operations recorded in another registry.
+	 */
+	public void merge(RoundtableMetrics other) {
+		if (other != null && other != this) {
+			other.histograms.forEach((series, histogram) -> histogram(series).add(histogram));
+		}
+	}
+
+	/**
+	 * @return all histograms ordered by URL and operation
+	 */
+	public List<Histogram> getHistograms() {
+		List<Histogram> list = new ArrayList<>(histograms.values());
+		list.sort(Comparator.comparing(Histogram::getUrl).thenComparing(Histogram::getOperation));
+		return list;
+	}
+
+	public void clear() {
+		histograms.clear();
+	}
+
+	private Histogram histogram(Series series) {
+		Histogram histogram = histograms.get(series);
+
+		if (histogram == null) {
+			if (histograms.size() >= MAX_SERIES) {
+				series = new Series("other", series.operation);
+			}
+			histogram = histograms.computeIfAbsent(series, Histogram::new);
+		}
+
+		return histogram;
+	}
+
+	private static final class Series implements Serializable {
+
+		private static final long serialVersionUID = 2526146385451785484L;
+
+		private final String url;
+		private final String operation;
+
+		private Series(String url, String operation) {
+			this.url = url != null ? url : LOCAL;
+			this.operation = operation;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Series)) {
+				return false;
+			}
+			Series other = (Series) obj;
+			return url.equals(other.url) && operation.equals(other.operation);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(url, operation);
+		}
+	}
+
+	/**
+	 * Latency histogram in microseconds of one operation on one server.
+	 */
+	public static final class Histogram implements Serializable {
+
+		private static final long serialVersionUID = -5617096734409719853L;
+
+		private static final int SUB_BITS = 3;
+		private static final int SUB_BUCKETS = 1 << SUB_BITS;
+		private static final int MAX_EXPONENT = 40;
+		private static final int BUCKETS = SUB_BUCKETS * (MAX_EXPONENT - SUB_BITS + 2);
+
+		private final String url;
+		private final String operation;
+		private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong errors = new AtomicLong();
+		private final AtomicLong sum = new AtomicLong();
+		private final AtomicLong max = new AtomicLong();
+
+		private Histogram(Series series) {
+			this.url = series.url;
+			this.operation = series.operation;
+		}
+
+		public String getUrl() {
+			return url;
+		}
+
+		public String getOperation() {
+			return operation;
+		}
+
+		public long getCount() {
+			return count.get();
+		}
+
+		public long getErrors() {
+			return errors.get();
+		}
+
+		/**
+		 * @return percentage of failed operations
+		 */
+		public double getErrorRate() {
+			long total = count.get();
+			return total > 0 ? 100.0 * errors.get() / total : 0;
+		}
+
+		/**
+		 * @return total of the recorded values in microseconds
+		 */
+		public long getSum() {
+			return sum.get();
+		}
+
+		/**
+		 * @return highest recorded value in microseconds
+		 */
+		public long getMax() {
+			return max.get();
+		}
+
+		/**
+		 * @param percentile between 0 and 100
+		 * @return the value in microseconds at the percentile, 0 when empty
+		 */
+		public long getPercentile(double percentile) {
+			long total = count.get();
+
+			if (total == 0) {
+				return 0;
+			}
+
+			long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+			long seen = 0;
+
+			for (int i = 0; i < BUCKETS; i++) {
+				seen += counts.get(i);
+				if (seen >= rank) {
+					return Math.min(upperBound(i), max.get());
+				}
+			}
+
+			return max.get();
+		}
+
+		private void record(long micros, boolean error) {
+			long value = Math.max(0, micros);
+
+			counts.incrementAndGet(index(value));
+			count.incrementAndGet();
+			sum.addAndGet(value);
+			max.accumulateAndGet(value, Math::max);
+			if (error) {
+				errors.incrementAndGet();
+			}
+		}
+
+		private void add(Histogram other) {
+			for (int i = 0; i < BUCKETS; i++) {
+				long c = other.counts.get(i);
+				if (c > 0) {
+					counts.addAndGet(i, c);
+				}
+			}
+			count.addAndGet(other.count.get());
+			errors.addAndGet(other.errors.get());
+			sum.addAndGet(other.sum.get());
+			max.accumulateAndGet(other.max.get(), Math::max);
+		}
+
+		private static int index(long value) {
+			if (value < SUB_BUCKETS) {
+				return (int) value;
+			}
+
+			int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+			int sub = (int) (Math.min(value, (1L << (MAX_EXPONENT + 1)) - 1) >>> (exponent - SUB_BITS))
+					& (SUB_BUCKETS - 1);
+
+			return SUB_BUCKETS * (exponent - SUB_BITS + 1) + sub;
+		}
+
+		private static long upperBound(int index) {
+			if (index < SUB_BUCKETS) {
+				return index;
+			}
+
+			int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+			int sub = index % SUB_BUCKETS;
+
+			return ((long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BITS)) - 1;
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import hudson.Extension;
+import hudson.model.ManagementLink;
+import hudson.model.RootAction;
+import hudson.security.Permission;
+import jenkins.model.Jenkins;
+
+/**
+ * Exports the Roundtable client operation latencies at
+ * {@code /roundtable-metrics/json} and, in OpenMetrics text format, at
+ * {@code /roundtable-metrics/openmetrics}.
+ */
+@Extension
+public class RoundtableMetricsAction implements RootAction {
+
+	private static final double[] QUANTILES = { 0.5, 0.9, 0.99 };
+
+	@Override
+	public String getIconFileName() {
+		return null;
+	}
+
+	@Override
+	public String getDisplayName() {
+		return "Roundtable Commander Metrics";
+	}
+
+	@Override
+	public String getUrlName() {
+		return "roundtable-metrics";
+	}
+
+	public void doJson(StaplerRequest req, StaplerResponse rsp) throws IOException {
+		Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+
+		List<Map<String, Object>> series = RoundtableMetrics.get().getHistograms().stream().map(h -> {
+			Map<String, Object> values = new LinkedHashMap<>();
+			values.put("url", h.getUrl());
+			values.put("operation", h.getOperation());
+			values.put("count", h.getCount());
+			values.put("errors", h.getErrors());
+			values.put("p50Micros", h.getPercentile(50));
+			values.put("p90Micros", h.getPercentile(90));
+			values.put("p99Micros", h.getPercentile(99));
+			values.put("maxMicros", h.getMax());
+			values.put("sumMicros", h.getSum());
+			return values;
+		}).collect(Collectors.toList());
+
+		rsp.setContentType("application/json;charset=UTF-8");
+		RoundtableChangeLogWriter.MAPPER.writeValue(rsp.getWriter(), series);
+	}
+
+	public void doOpenmetrics(StaplerRequest req, StaplerResponse rsp) throws IOException {
+		Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+
+		rsp.setContentType("application/openmetrics-text; version=1.0.0; charset=utf-8");
+		PrintWriter out = rsp.getWriter();
+		List<RoundtableMetrics.Histogram> histograms = RoundtableMetrics.get().getHistograms();
+
+		out.println("# TYPE roundtable_operation_seconds summary");
+		out.println("# UNIT roundtable_operation_seconds seconds");
+		out.println("# HELP roundtable_operation_seconds Latency of the Roundtable client operations.");
+		for (RoundtableMetrics.Histogram h : histograms) {
+			String labels = labels(h);
+
+			for (double quantile : QUANTILES) {
+				out.printf(Locale.ROOT, "roundtable_operation_seconds{%s,quantile=\"%s\"} %s%n", labels, quantile,
+						seconds(h.getPercentile(quantile * 100)));
+			}
+			out.printf(Locale.ROOT, "roundtable_operation_seconds_sum{%s} %s%n", labels, seconds(h.getSum()));
+			out.printf(Locale.ROOT, "roundtable_operation_seconds_count{%s} %d%n", labels, h.getCount());
+		}
+
+		out.println("# TYPE roundtable_operation_errors counter");
+		out.println("# HELP roundtable_operation_errors Failed Roundtable client operations.");
+		for (RoundtableMetrics.Histogram h : histograms) {
+			out.printf(Locale.ROOT, "roundtable_operation_errors_total{%s} %d%n", labels(h), h.getErrors());
+		}
+		out.println("# EOF");
+		out.flush();
+	}
+
+	private static String labels(RoundtableMetrics.Histogram h) {
+		return "url=\"" + escape(h.getUrl()) + "\",operation=\"" + escape(h.getOperation()) + "\"";
+	}
+
+	private static String escape(String value) {
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	private static String seconds(long micros) {
+		return String.format(Locale.ROOT, "%.6f", micros / 1_000_000.0);
+	}
+
+	/**
+	 * Shows the latencies on the Jenkins management page.
+	 */
+	@Extension
+	public static class Link extends ManagementLink {
+
+		@Override
+		public String getIconFileName() {
+			return Jenkins.RESOURCE_PATH + "/plugin/roundtablecommander/icons/rtb-commander-icon.png";
+		}
+
+		@Override
+		public String getDisplayName() {
+			return "Roundtable Commander Metrics";
+		}
+
+		@Override
+		public String getDescription() {
+			return "Latency and error rate of the Roundtable server operations.";
+		}
+
+		@Override
+		public String getUrlName() {
+			return "roundtable-metrics";
+		}
+
+		@Override
+		public Permission getRequiredPermission() {
+			return Jenkins.ADMINISTER;
+		}
+
+		@Override
+		public Category getCategory() {
+			return Category.STATUS;
+		}
+
+		public List<RoundtableMetrics.Histogram> getHistograms() {
+			return RoundtableMetrics.get().getHistograms();
+		}
+
+		/**
+		 * @return the microseconds as milliseconds text
+		 */
+		public String millis(long micros) {
+			return String.format(Locale.ROOT, "%.1f", micros / 1000.0);
+		}
+
+		public String rate(double percent) {
+			return String.format(Locale.ROOT, "%.2f%%", percent);
+		}
+	}
+}
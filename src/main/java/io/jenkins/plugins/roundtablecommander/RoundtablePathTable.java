@@ -0,0 +1,130 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Prefix compressed table of file paths shared by all entries of a change log
+ * set.
+ * <p>
+ * Every path is stored as a node made of its parent folder node and its last
+ * segment, so a folder is kept only once however many files are under it and
+ * the same file affected by many commits is a single node. Entries refer to
+ * paths by node index and the path strings are built on demand.
+ */
+public class RoundtablePathTable {
+
+	private static final char SEPARATOR = '/';
+	private static final int ROOT = -1;
+
+	private final Map<Node, Integer> index = new HashMap<>();
+	private final List<String> segments = new ArrayList<>();
+	private int[] parents = new int[64];
+
+	/**
+	 * Add a path to the table.
+	 *
+	 * @param path the file path
+	 * @return index of the path in the table
+	 */
+	public synchronized int intern(String path) {
+		int node = ROOT;
+		int start = 0;
+
+		for (int i = 0; i <= path.length(); i++) {
+			if (i == path.length() || path.charAt(i) == SEPARATOR) {
+				node = node(node, path.substring(start, i));
+				start = i + 1;
+			}
+		}
+
+		return node;
+	}
+
+	/**
+	 * Add all the paths to the table.
+	 *
+	 * @param paths the file paths
+	 * @return index of each path in the table
+	 */
+	public int[] intern(Iterable<String> paths) {
+		int[] ids = new int[8];
+		int size = 0;
+
+		for (String path : paths) {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+			}
+			ids[size++] = intern(path);
+		}
+
+		return Arrays.copyOf(ids, size);
+	}
+
+	/**
+	 * Build the path string of a table entry.
+	 *
+	 * @param id index of the path in the table
+	 * @return the file path
+	 */
+	public synchronized String get(int id) {
+		StringBuilder path = new StringBuilder(segments.get(id));
+
+		for (int node = parents[id]; node != ROOT; node = parents[node]) {
+			path.insert(0, SEPARATOR).insert(0, segments.get(node));
+		}
+
+		return path.toString();
+	}
+
+	public synchronized int size() {
+		return segments.size();
+	}
+
+	private int node(int parent, String segment) {
+		Node key = new Node(parent, segment);
+		Integer id = index.get(key);
+
+		if (id == null) {
+			id = segments.size();
+
+			if (id == parents.length) {
+				parents = Arrays.copyOf(parents, id * 2);
+			}
+			parents[id] = parent;
+			segments.add(key.segment);
+			index.put(key, id);
+		}
+
+		return id;
+	}
+
+	private static final class Node {
+
+		private final int parent;
+		private final String segment;
+
+		private Node(int parent, String segment) {
+			this.parent = parent;
+			this.segment = segment;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Node)) {
+				return false;
+			}
+			Node other = (Node) obj;
+			return parent == other.parent && segment.equals(other.segment);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(parent, segment);
+		}
+	}
+}
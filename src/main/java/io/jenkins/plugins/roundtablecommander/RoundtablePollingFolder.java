@@ -0,0 +1,100 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Items;
+import hudson.model.Job;
+import hudson.model.listeners.ItemListener;
+import jenkins.model.Jenkins;
+
+/**
+ * Folder of the controller in which a job polls its Roundtable remotes, the
+ * matching workspaces are fetched there with a depth of one.
+ * <p>
+ * The folder is named after the job, it is removed with the job and moved when
+ * the job is renamed.
+ */
+public final class RoundtablePollingFolder {
+
+	private static final Logger LOGGER = Logger.getLogger(RoundtablePollingFolder.class.getName());
+
+	private RoundtablePollingFolder() {
+	}
+
+	/**
+	 * @param fullName full name of the job
+	 * @return the polling folder of the job, not created
+	 */
+	public static File of(String fullName) {
+		return new File(new File(Jenkins.get().getRootDir(), "caches/roundtablecommander"),
+				Util.getDigestOf(fullName));
+	}
+
+	private static void delete(String fullName) {
+		File folder = of(fullName);
+
+		if (folder.exists()) {
+			RoundtableClientPool.get().evict(folder.getAbsolutePath());
+			try {
+				Util.deleteRecursive(folder);
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING, "Cannot delete the Roundtable polling folder " + folder, e);
+			}
+		}
+	}
+
+	private static void move(String oldFullName, String newFullName) {
+		File from = of(oldFullName);
+		File to = of(newFullName);
+
+		if (!from.exists()) {
+			return;
+		}
+
+		RoundtableClientPool.get().evict(from.getAbsolutePath());
+		if (to.exists() || !from.renameTo(to)) {
+			// the next polling fetches everything again
+			delete(oldFullName);
+		}
+	}
+
+	private static List<String> jobNames(Item item) {
+		if (item instanceof Job) {
+			return Collections.singletonList(item.getFullName());
+		}
+
+		List<String> names = new ArrayList<>();
+
+		if (item instanceof ItemGroup) {
+			Items.getAllItems((ItemGroup<?>) item, Job.class).forEach(job -> names.add(job.getFullName()));
+		}
+		return names;
+	}
+
+	@Extension
+	public static class ItemChangeListener extends ItemListener {
+
+		@Override
+		public void onDeleted(Item item) {
+			jobNames(item).forEach(RoundtablePollingFolder::delete);
+		}
+
+		@Override
+		public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+			// also called for each job of a renamed folder
+			if (item instanceof Job) {
+				move(oldFullName, newFullName);
+			}
+		}
+	}
+}
@@ -0,0 +1,241 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import hudson.model.Run;
+
+/**
+ * One page of the project changes view, made of the change log summaries saved
+ * next to the change log files so the builds can be listed without parsing
+ * their change logs.
+ * <p>
+ * The summaries of completed builds do not change and are kept in a bounded
+ * cache by build id, the builds themselves are not referenced.
+ */
+public class RoundtableProjectChanges {
+
+	public static final int PAGE_SIZE = 20;
+
+	private static final int MAX_CACHE_SIZE = 500;
+
+	private static final Map<String, Summaries> CACHE = new LinkedHashMap<String, Summaries>(64, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Summaries> eldest) {
+			return size() > MAX_CACHE_SIZE;
+		}
+	};
+
+	private final List<BuildChanges> builds;
+	private final int page;
+	private final boolean hasNext;
+
+	private RoundtableProjectChanges(List<BuildChanges> builds, int page, boolean hasNext) {
+		this.builds = builds;
+		this.page = page;
+		this.hasNext = hasNext;
+	}
+
+	/**
+	 * Build a page of the builds having changes.
+	 *
+	 * @param runs the builds to show, newest first
+	 * @param page page number, starting with 0
+	 * @return the page
+	 */
+	public static RoundtableProjectChanges of(Collection<? extends Run<?, ?>> runs, int page) {
+		List<BuildChanges> builds = new ArrayList<>();
+		int skip = Math.max(0, page) * PAGE_SIZE;
+		boolean hasNext = false;
+
+		if (runs != null) {
+			for (Run<?, ?> run : runs) {
+				BuildChanges changes = get(run);
+
+				if (!changes.hasChanges()) {
+					continue;
+				}
+				if (skip > 0) {
+					skip--;
+				} else if (builds.size() < PAGE_SIZE) {
+					builds.add(changes);
+				} else {
+					hasNext = true;
+					break;
+				}
+			}
+		}
+
+		return new RoundtableProjectChanges(builds, Math.max(0, page), hasNext);
+	}
+
+	/**
+	 * @param page page number as received in the request
+	 * @return the page number, 0 if not valid
+	 */
+	public static int parsePage(String page) {
+		try {
+			return page != null ? Math.max(0, Integer.parseInt(page)) : 0;
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	public static void invalidateAll() {
+		synchronized (CACHE) {
+			CACHE.clear();
+		}
+	}
+
+	private static BuildChanges get(Run<?, ?> run) {
+		if (run.isBuilding()) {
+			return new BuildChanges(run, new Summaries(run));
+		}
+
+		// only the summaries are cached, the build is the one of the request
+		String key = run.getExternalizableId();
+		Summaries summaries;
+
+		synchronized (CACHE) {
+			summaries = CACHE.get(key);
+		}
+
+		if (summaries == null) {
+			summaries = new Summaries(run);
+
+			synchronized (CACHE) {
+				CACHE.put(key, summaries);
+			}
+		}
+
+		return new BuildChanges(run, summaries);
+	}
+
+	public List<BuildChanges> getBuilds() {
+		return Collections.unmodifiableList(builds);
+	}
+
+	public int getPage() {
+		return page;
+	}
+
+	public boolean isHasPrevious() {
+		return page > 0;
+	}
+
+	public boolean isHasNext() {
+		return hasNext;
+	}
+
+	/**
+	 * Changes of one build, from the summaries of its change log files. Builds
+	 * made before the summaries were saved only know whether they may have
+	 * changes.
+	 */
+	public static class BuildChanges {
+
+		private final Run<?, ?> run;
+		private final Summaries summaries;
+
+		private BuildChanges(Run<?, ?> run, Summaries summaries) {
+			this.run = run;
+			this.summaries = summaries;
+		}
+
+		public Run<?, ?> getRun() {
+			return run;
+		}
+
+		public boolean hasChanges() {
+			return summaries.changes;
+		}
+
+		/**
+		 * @return false if some change logs have no summary and have to be read
+		 */
+		public boolean isSummarized() {
+			return summaries.summarized;
+		}
+
+		public List<RoundtableChangeLogSummary> getSummaries() {
+			return Collections.unmodifiableList(summaries.summaries);
+		}
+
+		public int getCount() {
+			return summaries.summaries.stream().mapToInt(RoundtableChangeLogSummary::getCount).sum();
+		}
+
+		public List<String> getAuthors() {
+			List<String> authors = new ArrayList<>();
+
+			summaries.summaries
+					.forEach(s -> s.getAuthors().stream().filter(a -> !authors.contains(a)).forEach(authors::add));
+			return authors;
+		}
+
+		/**
+		 * @return true if not all the commits are in the summary messages
+		 */
+		public boolean isTruncated() {
+			return !summaries.summarized
+					|| summaries.summaries.stream().anyMatch(RoundtableChangeLogSummary::isTruncated);
+		}
+	}
+
+	/**
+	 * The summaries of the Roundtable change log files of a build, the change
+	 * logs of other SCMs have no summary next to them.
+	 */
+	private static final class Summaries {
+
+		private final List<RoundtableChangeLogSummary> summaries = new ArrayList<>();
+		private boolean changes;
+		private boolean summarized = true;
+
+		private Summaries(Run<?, ?> run) {
+			// freestyle builds use changelog.xml, pipelines changelog<n>.xml
+			File[] files = run.getRootDir()
+					.listFiles((dir, name) -> name.startsWith("changelog")
+							&& name.endsWith(RoundtableChangeLogSummary.SUFFIX));
+
+			if (files == null) {
+				return;
+			}
+
+			for (File file : files) {
+				String path = file.getPath();
+				RoundtableChangeLogSummary summary = RoundtableChangeLogSummary
+						.load(new File(path.substring(0, path.length() - RoundtableChangeLogSummary.SUFFIX.length())));
+
+				if (summary == null) {
+					// not readable, the change log is
+					summarized = false;
+				} else if (summary.getCount() > 0) {
+					summaries.add(summary);
+				}
+				changes = changes || summary == null || summary.getCount() > 0;
+			}
+
+			// a Roundtable checkout made before the summaries were saved
+			if (files.length == 0 && run.getAction(BuildData.class) != null && hasChangeLog(run.getRootDir())) {
+				summarized = false;
+				changes = true;
+			}
+		}
+
+		private static boolean hasChangeLog(File rootDir) {
+			File[] files = rootDir.listFiles((dir, name) -> name.startsWith("changelog"));
+
+			return files != null && Arrays.stream(files).anyMatch(f -> f.length() > 0);
+		}
+	}
+}
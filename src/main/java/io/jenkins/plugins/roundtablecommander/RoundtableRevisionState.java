@@ -0,0 +1,122 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import hudson.scm.PollingResult;
+import hudson.scm.SCMRevisionState;
+
+/**
+ * Head revision of every matched workspace for each remote repository.
+ * <p>
+ * A revision is {@link #UNKNOWN} when a workspace was matched but no commit was
+ * received for it, the previous value is carried over when one is known.
+ */
+public class RoundtableRevisionState extends SCMRevisionState {
+
+	public static final int UNKNOWN = -1;
+
+	/**
+	 * @param remote name of the remote
+	 * @param url    URL of the remote server
+	 * @return the key of the revisions of a remote
+	 */
+	public static String key(String remote, String url) {
+		return url != null ? remote + "@" + url : remote;
+	}
+
+	private final Map<String, Map<String, Integer>> revisions = new TreeMap<>();
+
+	public RoundtableRevisionState() {
+	}
+
+	/**
+	 * Create a state from the head revisions read from the server, the unknown
+	 * ones are taken from the baseline when possible.
+	 *
+	 * @param heads    head revision by remote key and workspace
+	 * @param baseline previous state, can be {@code null}
+	 * @return the new state
+	 */
+	public static RoundtableRevisionState of(Map<String, ? extends Map<String, Integer>> heads,
+			SCMRevisionState baseline) {
+		RoundtableRevisionState state = new RoundtableRevisionState();
+		RoundtableRevisionState previous = baseline instanceof RoundtableRevisionState
+				? (RoundtableRevisionState) baseline
+				: null;
+
+		heads.forEach((remote, branches) -> branches.forEach((branch, revision) -> {
+			if (revision == UNKNOWN && previous != null) {
+				revision = previous.getRevision(remote, branch);
+			}
+			state.setRevision(remote, branch, revision);
+		}));
+
+		return state;
+	}
+
+	public Map<String, Map<String, Integer>> getRevisions() {
+		return Collections.unmodifiableMap(revisions);
+	}
+
+	/**
+	 * @return the workspace head revision, {@link #UNKNOWN} if not known
+	 */
+	public int getRevision(String remote, String branch) {
+		Map<String, Integer> branches = revisions.get(remote);
+		Integer revision = branches != null ? branches.get(branch) : null;
+
+		return revision != null ? revision : UNKNOWN;
+	}
+
+	public boolean hasBranch(String remote, String branch) {
+		Map<String, Integer> branches = revisions.get(remote);
+		return branches != null && branches.containsKey(branch);
+	}
+
+	public void setRevision(String remote, String branch, int revision) {
+		revisions.computeIfAbsent(remote, r -> new TreeMap<>()).put(branch, revision);
+	}
+
+	/**
+	 * Compare this (remote) state with the baseline, a newly matched workspace,
+	 * a head revision that moved or a first known one is a significant change
+	 * while workspaces that are no longer matched are not.
+	 *
+	 * @param baseline state of the last build
+	 * @return the change between the baseline and this state
+	 */
+	public PollingResult.Change compareTo(RoundtableRevisionState baseline) {
+		PollingResult.Change change = PollingResult.Change.NONE;
+
+		for (Map.Entry<String, Map<String, Integer>> remote : revisions.entrySet()) {
+			for (Map.Entry<String, Integer> branch : remote.getValue().entrySet()) {
+				if (!baseline.hasBranch(remote.getKey(), branch.getKey())) {
+					return PollingResult.Change.SIGNIFICANT;
+				}
+
+				int previous = baseline.getRevision(remote.getKey(), branch.getKey());
+
+				if (branch.getValue() != UNKNOWN && previous != branch.getValue()) {
+					return PollingResult.Change.SIGNIFICANT;
+				}
+			}
+		}
+
+		for (Map.Entry<String, Map<String, Integer>> remote : baseline.revisions.entrySet()) {
+			for (String branch : remote.getValue().keySet()) {
+				if (!hasBranch(remote.getKey(), branch)) {
+					change = PollingResult.Change.INSIGNIFICANT;
+				}
+			}
+		}
+
+		return change;
+	}
+
+	@Override
+	public String toString() {
+		return "RoundtableRevisionState" + revisions;
+	}
+}
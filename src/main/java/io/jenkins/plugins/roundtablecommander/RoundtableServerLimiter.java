@@ -0,0 +1,179 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.CheckForNull;
+
+import hudson.model.TaskListener;
+
+/**
+ * Limits the number of concurrent sessions to each Roundtable server, across
+ * all builds and polling of the controller.
+ * <p>
+ * Builds waiting for a session are served in arrival order and told so in
+ * their log, the waiting time is recorded as the {@code wait} operation of the
+ * server in {@link RoundtableMetrics}. A server has a single limit, the lowest
+ * one given by its users: users without limit share it too. It is only raised
+ * again by {@link #reset()}, when the global configuration is saved, and
+ * changing it does not affect the sessions already open.
+ */
+public final class RoundtableServerLimiter {
+
+	/**
+	 * No limit.
+	 */
+	public static final int DEFAULT_MAX_CONNECTIONS = 0;
+
+	private static final RoundtableServerLimiter INSTANCE = new RoundtableServerLimiter();
+
+	private final ConcurrentMap<String, Limit> limits = new ConcurrentHashMap<>();
+
+	public static RoundtableServerLimiter get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Take a session to the server, waiting for one to be released if all are in
+	 * use.
+	 *
+	 * @param url            the server URL
+	 * @param maxConnections concurrent sessions allowed, the limit of the server
+	 *                       applies if not positive
+	 * @param listener       told when the build has to wait
+	 * @param metrics        records the waiting time, can be {@code null}
+	 * @return the session permit, released when closed
+	 */
+	public Permit acquire(String url, int maxConnections, TaskListener listener, @CheckForNull RoundtableMetrics metrics)
+			throws InterruptedException {
+		if (url == null) {
+			return Permit.NONE;
+		}
+
+		Limit limit = maxConnections > 0 ? limits.computeIfAbsent(url, Limit::new) : limits.get(url);
+
+		if (limit == null) {
+			return Permit.NONE;
+		}
+
+		long start = System.nanoTime();
+
+		limit.lower(maxConnections);
+
+		// a timed try keeps the arrival order of the fair semaphore
+		if (!limit.tryAcquire(0, TimeUnit.SECONDS)) {
+			listener.getLogger().printf(
+					"Waiting for a connection to the Roundtable server %s, %d in use and %d build(s) waiting...%n", url,
+					limit.getMax(), limit.getQueueLength() + 1);
+			limit.acquire();
+			listener.getLogger().printf("Connection to the Roundtable server %s available after %d ms.%n", url,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		}
+
+		if (metrics != null) {
+			metrics.record(url, "wait", System.nanoTime() - start, false);
+		}
+
+		return new Permit(Collections.singletonList(limit));
+	}
+
+	/**
+	 * Forget the limits of all servers, the next users give them again. The
+	 * sessions already open are released to the previous limits.
+	 */
+	public void reset() {
+		limits.clear();
+	}
+
+	/**
+	 * Take a session to each server, in URL order so builds taking several
+	 * sessions do not block each other.
+	 *
+	 * @param servers  concurrent sessions allowed by server URL
+	 * @param listener told when the build has to wait
+	 * @param metrics  records the waiting time, can be {@code null}
+	 * @return the session permits, released together when closed
+	 */
+	public Permit acquireAll(Map<String, Integer> servers, TaskListener listener,
+			@CheckForNull RoundtableMetrics metrics) throws InterruptedException {
+		List<Limit> taken = new ArrayList<>();
+
+		try {
+			for (Map.Entry<String, Integer> server : new TreeMap<>(servers).entrySet()) {
+				taken.addAll(acquire(server.getKey(), server.getValue(), listener, metrics).limits);
+			}
+		} catch (InterruptedException | RuntimeException e) {
+			new Permit(taken).close();
+			throw e;
+		}
+
+		return taken.isEmpty() ? Permit.NONE : new Permit(taken);
+	}
+
+	/**
+	 * A session to a server, closing it lets the next waiting build in.
+	 */
+	public static final class Permit implements AutoCloseable {
+
+		static final Permit NONE = new Permit(Collections.emptyList());
+
+		private final List<Limit> limits;
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private Permit(List<Limit> limits) {
+			this.limits = limits;
+		}
+
+		/**
+		 * @param url the server URL
+		 * @return whether the permit holds a session to the server
+		 */
+		public boolean covers(String url) {
+			return limits.stream().anyMatch(l -> l.url.equals(url));
+		}
+
+		@Override
+		public void close() {
+			if (released.compareAndSet(false, true)) {
+				limits.forEach(Semaphore::release);
+			}
+		}
+	}
+
+	private static final class Limit extends Semaphore {
+
+		private static final long serialVersionUID = 1640862335946823474L;
+
+		private final String url;
+		private int max;
+
+		private Limit(String url) {
+			super(0, true);
+			this.url = url;
+		}
+
+		private synchronized void lower(int newMax) {
+			if (newMax <= 0 || (max > 0 && newMax >= max)) {
+				return;
+			}
+			if (max == 0) {
+				release(newMax);
+			} else {
+				reducePermits(max - newMax);
+			}
+			max = newMax;
+		}
+
+		private synchronized int getMax() {
+			return max;
+		}
+	}
+}
@@ -8,10 +8,9 @@ import com.cloudbees.plugins.credentials.domains.SchemeRequirement;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -19,44 +18,23 @@ import javax.annotation.Nonnull;
 public class RoundtableURIRequirementBuilder {
 
 	/**
-	 * Part of a pattern which matches the scheme part (appsrv, http, ...) of an
-	 * URI. Defines one capturing group containing the scheme without the trailing
-	 * colon and slashes
+	 * Number of URIs whose requirements are kept by {@link #fromUri(String)}.
 	 */
-	private static final String SCHEME_P = "([a-z][a-z0-9+-]+)://"; //$NON-NLS-1$
+	private static final int MAX_CACHE_SIZE = 500;
 
 	/**
-	 * Part of a pattern which matches the host part of URIs. Defines one capturing
-	 * group containing the host name.
+	 * Immutable requirement lists by URI string.
 	 */
-	private static final String HOST_P = "((?:[^\\\\/:]+)|(?:\\[[0-9a-f:]+\\]))";
+	private static final Map<String, List<DomainRequirement>> CACHE = new LinkedHashMap<String, List<DomainRequirement>>(
+			64, 0.75f, true) {
 
-	/**
-	 * Part of a pattern which matches the optional port part of URIs. Defines one
-	 * capturing group containing the port without the preceding colon.
-	 */
-	private static final String OPT_PORT_P = "(?::(\\d+))?"; //$NON-NLS-1$
-
-	/**
-	 * Part of a pattern which matches a application server name. Relative paths
-	 * don't start with slash or drive letters. Defines no capturing group.
-	 */
-	private static final String OPT_NAME_P = "(?:(?:[^\\\\/]+[\\\\/]+)*[^\\\\/]+[\\\\/]*)"; //$NON-NLS-1$
+		private static final long serialVersionUID = 1L;
 
-	/**
-	 * A pattern matching standard URI: </br>
-	 * <code>scheme "://" user_password? hostname? portnumber? path</code>
-	 */
-	private static final Pattern FULL_URI = Pattern.compile("^" // //$NON-NLS-1$
-			+ SCHEME_P //
-			+ "(?:" // start a group containing hostname and all options only //$NON-NLS-1$
-			// availabe when a hostname is there
-			+ HOST_P //
-			+ OPT_PORT_P //
-			+ "([\\\\/]?" + OPT_NAME_P + ")?" // optional appsrv name/path
-			+ ")?" // close the optional group containing hostname //$NON-NLS-1$
-			+ "(.+)?" // //$NON-NLS-1$
-			+ "$"); //$NON-NLS-1$
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, List<DomainRequirement>> eldest) {
+			return size() > MAX_CACHE_SIZE;
+		}
+	};
 
 	/**
 	 * The list of requirements.
@@ -101,7 +79,25 @@ public class RoundtableURIRequirementBuilder {
 	 */
 	@Nonnull
 	public static RoundtableURIRequirementBuilder fromUri(@CheckForNull String uri) {
-		return create().withUri(uri);
+		if (uri == null) {
+			return create();
+		}
+
+		List<DomainRequirement> requirements;
+
+		synchronized (CACHE) {
+			requirements = CACHE.get(uri);
+		}
+
+		if (requirements == null) {
+			requirements = Collections.unmodifiableList(create().withUri(uri).requirements);
+
+			synchronized (CACHE) {
+				CACHE.put(uri, requirements);
+			}
+		}
+
+		return new RoundtableURIRequirementBuilder(requirements);
 	}
 
 	/**
@@ -112,21 +108,19 @@ public class RoundtableURIRequirementBuilder {
 	 */
 	@Nonnull
 	public RoundtableURIRequirementBuilder withUri(@CheckForNull String uri) {
-		if (uri != null) {
-			Matcher matcher = FULL_URI.matcher(uri);
-			if (matcher.matches()) {
-				withScheme(matcher.group(1));
-				if (matcher.group(3) != null) {
-					withHostnamePort(matcher.group(2), Integer.parseInt(matcher.group(3)));
-				} else {
-					withHostname(matcher.group(2)).withoutHostnamePort();
-				}
-				
-				if (matcher.group(4) != null) 
-					withPath(matcher.group(4));
-				
-				return this;
+		ParsedUri parsed = uri != null ? ParsedUri.parse(uri) : null;
+
+		if (parsed != null) {
+			withScheme(parsed.scheme);
+			if (parsed.port != -1) {
+				withHostnamePort(parsed.hostname, parsed.port);
+			} else {
+				withHostname(parsed.hostname).withoutHostnamePort();
 			}
+			// an URI without path also replaces the previous path
+			withPath(parsed.path);
+
+			return this;
 		}
 		return withoutScheme().withoutPath().withoutHostname().withoutHostnamePort();
 	}
@@ -138,12 +132,7 @@ public class RoundtableURIRequirementBuilder {
 	 */
 	@Nonnull
 	public RoundtableURIRequirementBuilder withoutScheme() {
-		for (Iterator<DomainRequirement> iterator = requirements.iterator(); iterator.hasNext();) {
-			DomainRequirement r = iterator.next();
-			if (r instanceof SchemeRequirement) {
-				iterator.remove();
-			}
-		}
+		requirements.removeIf(r -> r instanceof SchemeRequirement);
 		return this;
 	}
 
@@ -154,12 +143,7 @@ public class RoundtableURIRequirementBuilder {
 	 */
 	@Nonnull
 	public RoundtableURIRequirementBuilder withoutPath() {
-		for (Iterator<DomainRequirement> iterator = requirements.iterator(); iterator.hasNext();) {
-			DomainRequirement r = iterator.next();
-			if (r instanceof PathRequirement) {
-				iterator.remove();
-			}
-		}
+		requirements.removeIf(r -> r instanceof PathRequirement);
 		return this;
 	}
 
@@ -170,12 +154,7 @@ public class RoundtableURIRequirementBuilder {
 	 */
 	@Nonnull
 	public RoundtableURIRequirementBuilder withoutHostname() {
-		for (Iterator<DomainRequirement> iterator = requirements.iterator(); iterator.hasNext();) {
-			DomainRequirement r = iterator.next();
-			if (r instanceof HostnameRequirement) {
-				iterator.remove();
-			}
-		}
+		requirements.removeIf(r -> r instanceof HostnameRequirement);
 		return this;
 	}
 
@@ -186,12 +165,7 @@ public class RoundtableURIRequirementBuilder {
 	 */
 	@Nonnull
 	public RoundtableURIRequirementBuilder withoutHostnamePort() {
-		for (Iterator<DomainRequirement> iterator = requirements.iterator(); iterator.hasNext();) {
-			DomainRequirement r = iterator.next();
-			if (r instanceof HostnamePortRequirement) {
-				iterator.remove();
-			}
-		}
+		requirements.removeIf(r -> r instanceof HostnamePortRequirement);
 		return this;
 	}
 
@@ -269,4 +243,120 @@ public class RoundtableURIRequirementBuilder {
 		return new ArrayList<>(requirements);
 	}
 
+	/**
+	 * Parts of an URI read in a single pass:
+	 * <code>scheme "://" (userinfo "@")? hostname? (":" port)? path?</code>
+	 * <p>
+	 * The user info is skipped. The hostname stops at the first colon, slash or
+	 * backslash unless it is an IPv6 address in square brackets. The path is what
+	 * follows the hostname and port, it must not start with two separators.
+	 */
+	private static final class ParsedUri {
+
+		private String scheme;
+		private String hostname;
+		private int port = -1;
+		private String path;
+
+		/**
+		 * @return the URI parts, {@code null} if the URI has no valid scheme
+		 */
+		@CheckForNull
+		private static ParsedUri parse(String uri) {
+			int length = uri.length();
+			int pos = 0;
+
+			while (pos < length && isSchemeChar(uri.charAt(pos), pos == 0)) {
+				pos++;
+			}
+			if (pos < 2 || !uri.startsWith("://", pos)) {
+				return null;
+			}
+
+			ParsedUri parsed = new ParsedUri();
+
+			parsed.scheme = uri.substring(0, pos);
+			pos += 3;
+			pos = skipUserInfo(uri, pos);
+
+			int hostEnd = hostEnd(uri, pos);
+
+			if (hostEnd == pos) {
+				// no hostname, nothing else is read
+				return parsed;
+			}
+			parsed.hostname = uri.substring(pos, hostEnd);
+			pos = hostEnd;
+
+			if (pos + 1 < length && uri.charAt(pos) == ':' && isDigit(uri.charAt(pos + 1))) {
+				int portEnd = pos + 1;
+
+				while (portEnd < length && isDigit(uri.charAt(portEnd))) {
+					portEnd++;
+				}
+				try {
+					parsed.port = Integer.parseInt(uri.substring(pos + 1, portEnd));
+					pos = portEnd;
+				} catch (NumberFormatException e) {
+					// out of range, kept in the path
+				}
+			}
+
+			if (pos < length && (!isSeparator(uri.charAt(pos))
+					|| (pos + 1 < length && !isSeparator(uri.charAt(pos + 1))))) {
+				parsed.path = uri.substring(pos);
+			}
+
+			return parsed;
+		}
+
+		private static int skipUserInfo(String uri, int start) {
+			int hostStart = start;
+
+			for (int pos = start; pos < uri.length() && !isSeparator(uri.charAt(pos)); pos++) {
+				if (uri.charAt(pos) == '@') {
+					hostStart = pos + 1;
+				}
+			}
+			return hostStart;
+		}
+
+		private static int hostEnd(String uri, int start) {
+			int pos = start;
+
+			if (pos < uri.length() && uri.charAt(pos) == '[') {
+				int close = uri.indexOf(']', pos);
+
+				if (close > pos + 1) {
+					boolean ipv6 = true;
+
+					for (int i = pos + 1; i < close && ipv6; i++) {
+						char c = uri.charAt(i);
+						ipv6 = isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F') || c == ':' || c == '.';
+					}
+					if (ipv6) {
+						return close + 1;
+					}
+				}
+			}
+
+			while (pos < uri.length() && uri.charAt(pos) != ':' && !isSeparator(uri.charAt(pos))) {
+				pos++;
+			}
+			return pos;
+		}
+
+		private static boolean isSchemeChar(char c, boolean first) {
+			return (c >= 'a' && c <= 'z') || (!first && (isDigit(c) || c == '+' || c == '-'));
+		}
+
+		private static boolean isDigit(char c) {
+			return c >= '0' && c <= '9';
+		}
+
+		private static boolean isSeparator(char c) {
+			return c == '/' || c == '\\';
+		}
+	}
+
 }
@@ -0,0 +1,166 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.FormValidation;
+import hudson.util.NamingThreadFactory;
+import jenkins.util.Timer;
+
+/**
+ * Runs the repository URL checks of the configuration form in the background
+ * so an unreachable server does not hold a web request thread.
+ * <p>
+ * The checks run on a small bounded executor and are interrupted after a hard
+ * timeout so a hung connection gives its thread back, the request only waits
+ * briefly for the result and answers with a "checking" message
+ * otherwise, the form asks again until the result is there. Results are kept
+ * for a short time per URL and credentials.
+ */
+public final class RoundtableUrlValidator {
+
+	/**
+	 * Class of the message shown while checking, used by the form to ask again.
+	 */
+	static final String CHECKING_CLASS = "roundtable-url-checking";
+
+	private static final int THREADS = 4;
+	private static final int QUEUE_SIZE = 16;
+	private static final int MAX_CACHE_SIZE = 200;
+	private static final long WAIT_MILLIS = 1000;
+	private static final long TIMEOUT_SECONDS = 30;
+	private static final long TTL_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+	private static final RoundtableUrlValidator INSTANCE = new RoundtableUrlValidator();
+
+	private final ThreadPoolExecutor executor;
+	private final Map<Key, Check> checks = new LinkedHashMap<>(16, 0.75f, true);
+
+	private RoundtableUrlValidator() {
+		executor = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(QUEUE_SIZE),
+				new NamingThreadFactory(new DaemonThreadFactory(), "RoundtableCommanderSCM.checkUrl"));
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	public static RoundtableUrlValidator get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Check an URL, the check is started in the background unless a recent result
+	 * or a running check is available.
+	 *
+	 * @param item          full name of the item the check is done for
+	 * @param url           the repository URL
+	 * @param credentialsId id of the credentials used
+	 * @param check         checks the URL
+	 * @return the result, or a "checking" message if not yet available
+	 */
+	public FormValidation check(String item, String url, String credentialsId, Supplier<FormValidation> check) {
+		Key key = new Key(item, url, credentialsId);
+		Check current;
+
+		synchronized (checks) {
+			expire(System.currentTimeMillis());
+			current = checks.get(key);
+
+			if (current == null) {
+				current = new Check(check);
+				try {
+					executor.execute(current);
+				} catch (RejectedExecutionException e) {
+					return FormValidation.warning("Too many repository URL checks running, try again later.");
+				}
+				Timer.get().schedule(current::timeout, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+				checks.put(key, current);
+
+				if (checks.size() > MAX_CACHE_SIZE) {
+					Iterator<Check> eldest = checks.values().iterator();
+					eldest.next();
+					eldest.remove();
+				}
+			}
+		}
+
+		try {
+			return current.get(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+		} catch (CancellationException e) {
+			return FormValidation.error("No answer from the repository URL after %d seconds.", TIMEOUT_SECONDS);
+		} catch (TimeoutException e) {
+			return FormValidation.okWithMarkup("<span class=\"" + CHECKING_CLASS + "\">Checking…</span>");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return FormValidation.ok();
+		} catch (ExecutionException e) {
+			return FormValidation.error(e.getCause(), "Cannot check the repository URL.");
+		}
+	}
+
+	private void expire(long now) {
+		checks.values().removeIf(c -> c.getDoneTime() > 0 && now - c.getDoneTime() > TTL_MILLIS);
+	}
+
+	private static final class Check extends FutureTask<FormValidation> {
+
+		private volatile long doneTime;
+
+		private Check(Supplier<FormValidation> check) {
+			super(check::get);
+		}
+
+		private void timeout() {
+			// interrupts the client waiting for the server
+			cancel(true);
+		}
+
+		@Override
+		protected void done() {
+			doneTime = System.currentTimeMillis();
+		}
+
+		private long getDoneTime() {
+			return doneTime;
+		}
+	}
+
+	private static final class Key {
+
+		private final String item;
+		private final String url;
+		private final String credentialsId;
+
+		private Key(String item, String url, String credentialsId) {
+			this.item = item;
+			this.url = url;
+			this.credentialsId = credentialsId;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return Objects.equals(item, other.item) && Objects.equals(url, other.url)
+					&& Objects.equals(credentialsId, other.credentialsId);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(item, url, credentialsId);
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import hudson.EnvVars;
+
+/**
+ * Matches workspace names against all the workspace specs of a remote in a
+ * single pass.
+ * <p>
+ * Literal names are looked up in a hash map, names with only trailing
+ * wildcards in a prefix trie and only the remaining specs are tested with
+ * their regular expression. The result is the same as filtering the
+ * workspaces with every spec in turn: workspaces are ordered by the first spec
+ * they match and the last matching spec gives the shallow depth.
+ */
+public class WorkspaceMatcher {
+
+	private static final int NONE = -1;
+
+	private final List<WorkspaceSpec> specs;
+	private final Map<String, Range> literals = new HashMap<>();
+	private final Node prefixes = new Node();
+	private final List<Integer> regexSpecs = new ArrayList<>();
+	private final List<Pattern> regexPatterns = new ArrayList<>();
+
+	public WorkspaceMatcher(List<WorkspaceSpec> specs, EnvVars env) {
+		this.specs = new ArrayList<>(specs);
+
+		for (int i = 0; i < this.specs.size(); i++) {
+			String name = this.specs.get(i).getExpandedName(env);
+			int wildcard = name.indexOf('*');
+
+			if (WorkspaceSpec.isRegex(name)) {
+				addRegex(i, name);
+			} else if (wildcard < 0) {
+				literals.computeIfAbsent(name, n -> new Range()).add(i);
+			} else if (isTrailing(name, wildcard)) {
+				prefixes.add(name.substring(0, wildcard), 0).add(i, name.length() - wildcard > 1);
+			} else {
+				addRegex(i, name);
+			}
+		}
+	}
+
+	/**
+	 * Find the spec matching a workspace.
+	 *
+	 * @param workspace the workspace name
+	 * @return the last spec matching the workspace, {@code null} if none
+	 */
+	public WorkspaceSpec match(String workspace) {
+		Range range = new Range();
+
+		match(workspace, range);
+		return range.last != NONE ? specs.get(range.last) : null;
+	}
+
+	/**
+	 * Filter the workspaces matching any of the specs.
+	 *
+	 * @param workspaces the workspace names
+	 * @return matching workspaces with the spec that applies to each of them
+	 */
+	public LinkedHashMap<String, WorkspaceSpec> filterMatching(Collection<String> workspaces) {
+		List<List<String>> bySpec = new ArrayList<>(specs.size());
+		Map<String, WorkspaceSpec> matched = new HashMap<>();
+		LinkedHashMap<String, WorkspaceSpec> result = new LinkedHashMap<>();
+
+		for (int i = 0; i < specs.size(); i++) {
+			bySpec.add(new ArrayList<>());
+		}
+
+		for (String workspace : workspaces) {
+			Range range = new Range();
+
+			match(workspace, range);
+
+			if (range.first != NONE) {
+				bySpec.get(range.first).add(workspace);
+				matched.put(workspace, specs.get(range.last));
+			}
+		}
+
+		bySpec.forEach(list -> list.forEach(w -> result.put(w, matched.get(w))));
+
+		return result;
+	}
+
+	private void match(String workspace, Range range) {
+		Range literal = literals.get(workspace);
+
+		if (literal != null) {
+			range.add(literal);
+		}
+
+		int lastSlash = workspace.lastIndexOf('/');
+		Node node = prefixes;
+
+		for (int i = 0; node != null; i++) {
+			node.match(lastSlash < i, range);
+			node = i < workspace.length() ? node.children.get(workspace.charAt(i)) : null;
+		}
+
+		for (int i = 0; i < regexSpecs.size(); i++) {
+			int spec = regexSpecs.get(i);
+
+			if ((spec < range.first || spec > range.last || range.first == NONE)
+					&& regexPatterns.get(i).matcher(workspace).matches()) {
+				range.add(spec);
+			}
+		}
+	}
+
+	private void addRegex(int spec, String name) {
+		regexSpecs.add(spec);
+		regexPatterns.add(WorkspaceSpec.getPattern(name));
+	}
+
+	private static boolean isTrailing(String name, int wildcard) {
+		for (int i = wildcard; i < name.length(); i++) {
+			if (name.charAt(i) != '*') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * First and last index of the matching specs.
+	 */
+	private static final class Range {
+
+		private int first = NONE;
+		private int last = NONE;
+
+		private void add(int spec) {
+			first = first == NONE ? spec : Math.min(first, spec);
+			last = Math.max(last, spec);
+		}
+
+		private void add(Range other) {
+			if (other.first != NONE) {
+				add(other.first);
+				add(other.last);
+			}
+		}
+	}
+
+	/**
+	 * Prefix trie node, a single wildcard does not match past a '/' while two or
+	 * more match anything.
+	 */
+	private static final class Node {
+
+		private final Map<Character, Node> children = new HashMap<>();
+		private final Range anySuffix = new Range();
+		private final Range segmentSuffix = new Range();
+
+		private Node add(String prefix, int index) {
+			if (index == prefix.length()) {
+				return this;
+			}
+			return children.computeIfAbsent(prefix.charAt(index), c -> new Node()).add(prefix, index + 1);
+		}
+
+		private void add(int spec, boolean any) {
+			(any ? anySuffix : segmentSuffix).add(spec);
+		}
+
+		private void match(boolean noSlashInSuffix, Range range) {
+			range.add(anySuffix);
+			if (noSlashInSuffix) {
+				range.add(segmentSuffix);
+			}
+		}
+	}
+}
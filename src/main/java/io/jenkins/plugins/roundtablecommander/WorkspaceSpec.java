@@ -4,7 +4,9 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import org.jenkinsci.plugins.scriptsecurity.sandbox.whitelists.Whitelisted;
@@ -25,6 +27,13 @@ import hudson.model.Descriptor;
 public class WorkspaceSpec extends AbstractDescribableImpl<WorkspaceSpec> implements Serializable {
 	private static final long serialVersionUID = -6177158367915899356L;
 
+	private static final int MAX_PATTERNS = 1000;
+
+	/**
+	 * Compiled patterns by expanded name, shared by all specs.
+	 */
+	private static final Map<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
+
 	private String name;
 	private int shallow;
 
@@ -89,7 +98,7 @@ public class WorkspaceSpec extends AbstractDescribableImpl<WorkspaceSpec> implem
 		return items;
 	}
 
-	private String getExpandedName(EnvVars env) {
+	String getExpandedName(EnvVars env) {
 		String expandedName = env.expand(name);
 		if (expandedName.length() == 0) {
 			return "*";
@@ -97,14 +106,28 @@ public class WorkspaceSpec extends AbstractDescribableImpl<WorkspaceSpec> implem
 		return expandedName;
 	}
 
-	private Pattern getPattern(EnvVars env) {
-		return getPattern(env, null);
+	Pattern getPattern(EnvVars env) {
+		return getPattern(getExpandedName(env));
 	}
 
-	private Pattern getPattern(EnvVars env, String repositoryName) {
-		String expandedName = getExpandedName(env);
+	static Pattern getPattern(String expandedName) {
+		Pattern pattern = PATTERNS.get(expandedName);
+
+		if (pattern == null) {
+			pattern = compile(expandedName);
+
+			if (PATTERNS.size() >= MAX_PATTERNS) {
+				PATTERNS.clear();
+			}
+			PATTERNS.put(expandedName, pattern);
+		}
+
+		return pattern;
+	}
+
+	private static Pattern compile(String expandedName) {
 		// use regex syntax directly if name starts with colon
-		if (expandedName.startsWith(":") && expandedName.length() > 1) {
+		if (isRegex(expandedName)) {
 			String regexSubstring = expandedName.substring(1, expandedName.length());
 			return Pattern.compile(regexSubstring);
 		}
@@ -112,7 +135,11 @@ public class WorkspaceSpec extends AbstractDescribableImpl<WorkspaceSpec> implem
 		return Pattern.compile(convertWildcardStringToRegex(expandedName));
 	}
 
-	private String convertWildcardStringToRegex(String expandedName) {
+	static boolean isRegex(String expandedName) {
+		return expandedName.startsWith(":") && expandedName.length() > 1;
+	}
+
+	private static String convertWildcardStringToRegex(String expandedName) {
 		StringBuilder builder = new StringBuilder();
 
 		// was the last token a wildcard?
@@ -0,0 +1,17 @@
+// asks again for the repository URL check while the server answers "checking"
+(function () {
+  setInterval(function () {
+    document.querySelectorAll(".roundtable-url-checking").forEach(function (checking) {
+      var e = checking.parentNode;
+
+      // the closest form block holding the URL field of this remote
+      while (e != null && e.querySelector("input[name='_.url']") == null) {
+        e = e.parentNode;
+      }
+      if (e != null) {
+        checking.className = "";
+        e.querySelector("input[name='_.url']").dispatchEvent(new Event("change"));
+      }
+    });
+  }, 2000);
+})();
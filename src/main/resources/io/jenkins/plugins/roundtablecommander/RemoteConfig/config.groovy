@@ -2,6 +2,9 @@ package io.jenkins.plugins.roundtablecommander.RemoteConfig
 
 f = namespace(lib.FormTagLib)
 c = namespace(lib.CredentialsTagLib)
+st = namespace("jelly:stapler")
+
+st.adjunct(includes: "io.jenkins.plugins.roundtablecommander.RemoteConfig.checking")
 
 f.entry(title:_("Repository URL"), field:"url") {
     f.textbox(checkMethod: "post")
@@ -25,6 +28,14 @@ f.entry(title:_("Workspaces to build"), field:"workspaces") {
     f.repeatableProperty(field:"workspaces", minimum:"1", add:_("Add Workspace"))
 }
 
+f.advanced {
+    f.entry(title:_("Fetch concurrency"), field:"fetchConcurrency") {
+        f.textbox()
+    }
+    f.entry(title:_("Max server connections"), field:"maxConnections") {
+        f.textbox()
+    }
+}
 
 f.entry {
     div(class: "show-if-not-only") {
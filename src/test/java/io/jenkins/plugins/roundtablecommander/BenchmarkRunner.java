@@ -0,0 +1,37 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import jenkins.benchmark.jmh.BenchmarkFinder;
+
+/**
+ * Runs all the {@code @JmhBenchmark} classes, only with the benchmark profile:
+ * {@code mvn test -Dbenchmark}. The results are written as JSON to
+ * {@code jmh-report.json} so they can be compared between releases.
+ */
+public class BenchmarkRunner {
+
+	@Test
+	public void runJmhBenchmarks() throws Exception {
+		ChainedOptionsBuilder options = new OptionsBuilder()
+				.mode(Mode.AverageTime)
+				.timeUnit(TimeUnit.MICROSECONDS)
+				.warmupIterations(3)
+				.measurementIterations(10)
+				.forks(1)
+				.shouldFailOnError(true)
+				.shouldDoGC(true)
+				.resultFormat(ResultFormatType.JSON)
+				.result(System.getProperty("benchmark.report", "jmh-report.json"));
+
+		new BenchmarkFinder(getClass()).findBenchmarks(options);
+		new Runner(options.build()).run();
+	}
+}
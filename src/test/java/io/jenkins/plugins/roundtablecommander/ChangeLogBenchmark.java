@@ -0,0 +1,85 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hudson.model.TaskListener;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import ro.acorn.roundtable.model.ICommit;
+
+/**
+ * Writing and reading a change log of 2000 commits, each with 5 entries of 4
+ * files, and listing the affected files of the entries read.
+ */
+@JmhBenchmark
+public class ChangeLogBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class ChangeLog {
+
+		@Param({ "false", "true" })
+		boolean compress;
+
+		List<ICommit> commits;
+		File changelogFile;
+		File written;
+		List<RoundtableChangeLogEntry> entries;
+
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			commits = SyntheticData.commits(2000, 5, 4);
+			changelogFile = File.createTempFile("changelog", ".xml");
+			written = File.createTempFile("changelog", ".xml");
+
+			try (RoundtableChangeLogWriter writer = new RoundtableChangeLogWriter(changelogFile, TaskListener.NULL,
+					compress)) {
+				writer.write(commits);
+				writer.close();
+				writer.getSummary().save(changelogFile);
+			}
+
+			entries = new RoundtableChangeLogSet(null, null, changelogFile).getEntries();
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			Files.deleteIfExists(changelogFile.toPath());
+			Files.deleteIfExists(new File(changelogFile.getPath() + ".summary").toPath());
+			Files.deleteIfExists(written.toPath());
+		}
+	}
+
+	@Benchmark
+	public int write(ChangeLog state) {
+		try (RoundtableChangeLogWriter writer = new RoundtableChangeLogWriter(state.written, TaskListener.NULL,
+				state.compress)) {
+			writer.write(state.commits);
+			return writer.getCount();
+		}
+	}
+
+	@Benchmark
+	public int read(ChangeLog state) throws IOException {
+		return new RoundtableChangeLogSet(null, null, state.changelogFile).getEntries().size();
+	}
+
+	@Benchmark
+	public void affectedFiles(ChangeLog state, Blackhole blackhole) {
+		for (RoundtableChangeLogEntry entry : state.entries) {
+			for (RoundtableChangeLogEntry.Path path : entry.getAffectedFiles()) {
+				blackhole.consume(path.getPath());
+			}
+		}
+	}
+}
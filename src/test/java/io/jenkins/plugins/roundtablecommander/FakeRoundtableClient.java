@@ -0,0 +1,179 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ro.acorn.roundtable.model.ICommit;
+import ro.acorn.roundtable.rtbclient.IRoundtableClient;
+
+/**
+ * In-process fake of a Roundtable client with a configurable number of remote
+ * workspaces, commits returned for each fetch and latency added to every
+ * server call.
+ * <p>
+ * Every fetch returns new commits with increasing revisions. Calls not needed
+ * by the checkout return empty values. The fake counts the sessions open at
+ * once for listing and fetch, and the calls made on a client already in use by
+ * another thread.
+ */
+final class FakeRoundtableClient implements InvocationHandler {
+
+	private final int branches;
+	private final int commitsPerFetch;
+	private final long latencyMillis;
+	private final AtomicInteger revision = new AtomicInteger(1000);
+	private final AtomicLong calls = new AtomicLong();
+	private final AtomicLong fetches = new AtomicLong();
+	private final AtomicInteger sessions = new AtomicInteger();
+	private final AtomicInteger maxSessions = new AtomicInteger();
+	private final AtomicInteger concurrentUses = new AtomicInteger();
+	private final Set<Object> inUse = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+	/**
+	 * @param branches        number of remote workspaces
+	 * @param commitsPerFetch commits returned by each fetch
+	 * @param latencyMillis   latency of each server call
+	 */
+	FakeRoundtableClient(int branches, int commitsPerFetch, long latencyMillis) {
+		this.branches = branches;
+		this.commitsPerFetch = commitsPerFetch;
+		this.latencyMillis = latencyMillis;
+	}
+
+	/**
+	 * @return a new client proxy, all sharing the state of this fake server
+	 */
+	IRoundtableClient newClient() {
+		return (IRoundtableClient) Proxy.newProxyInstance(IRoundtableClient.class.getClassLoader(),
+				new Class<?>[] { IRoundtableClient.class }, this);
+	}
+
+	/**
+	 * @return number of server calls received
+	 */
+	long getCalls() {
+		return calls.get();
+	}
+
+	/**
+	 * @return number of workspace fetches received
+	 */
+	long getFetches() {
+		return fetches.get();
+	}
+
+	/**
+	 * @return highest number of listing and fetch sessions open at once
+	 */
+	int getMaxSessions() {
+		return maxSessions.get();
+	}
+
+	/**
+	 * @return number of calls made on a client while another thread used it
+	 */
+	int getConcurrentUses() {
+		return concurrentUses.get();
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		switch (method.getName()) {
+		case "equals":
+			return proxy == args[0];
+		case "hashCode":
+			return System.identityHashCode(proxy);
+		case "toString":
+			return "FakeRoundtableClient";
+		default:
+			break;
+		}
+
+		if (!inUse.add(proxy)) {
+			concurrentUses.incrementAndGet();
+			return call(method);
+		}
+		try {
+			return call(method);
+		} finally {
+			inUse.remove(proxy);
+		}
+	}
+
+	private Object call(Method method) throws InterruptedException {
+		switch (method.getName()) {
+		case "getRemoteBranches":
+			session();
+			return SyntheticData.workspaces(branches);
+		case "fetch":
+			fetches.incrementAndGet();
+			session();
+			return fetch();
+		case "getRemotes":
+		case "getBranches":
+			return Collections.emptyList();
+		case "addRemote":
+		case "copy":
+		case "checkout":
+		case "checkRemote":
+			serverCall();
+			return defaultValue(method.getReturnType());
+		default:
+			return defaultValue(method.getReturnType());
+		}
+	}
+
+	private Collection<ICommit> fetch() {
+		List<ICommit> commits = new ArrayList<>(commitsPerFetch);
+
+		for (ICommit commit : SyntheticData.commits(commitsPerFetch, 3, 4)) {
+			((SyntheticData.Commit) commit).revision = revision.incrementAndGet();
+			commits.add(commit);
+		}
+
+		return commits;
+	}
+
+	private void session() throws InterruptedException {
+		maxSessions.accumulateAndGet(sessions.incrementAndGet(), Math::max);
+		try {
+			serverCall();
+		} finally {
+			sessions.decrementAndGet();
+		}
+	}
+
+	private void serverCall() throws InterruptedException {
+		calls.incrementAndGet();
+
+		if (latencyMillis > 0) {
+			TimeUnit.MILLISECONDS.sleep(latencyMillis);
+		}
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		if (type == boolean.class) {
+			return false;
+		}
+		if (type == int.class) {
+			return 0;
+		}
+		if (type == long.class) {
+			return 0L;
+		}
+		if (Collection.class.isAssignableFrom(type)) {
+			return Collections.emptyList();
+		}
+		return null;
+	}
+}
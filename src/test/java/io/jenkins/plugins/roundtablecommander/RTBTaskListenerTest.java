@@ -0,0 +1,89 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import hudson.util.StreamTaskListener;
+import ro.acorn.roundtable.logging.RoundtableLogger.Level;
+
+public class RTBTaskListenerTest {
+
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+	private final RTBTaskListener logger = new RTBTaskListener(
+			new StreamTaskListener(out, StandardCharsets.UTF_8));
+
+	@Test
+	public void dropsMessagesBelowLevel() {
+		logger.setLevel(Level.WARNING);
+		logger.doLog(Level.INFO, "Fetching workspace", null);
+		logger.doLog(Level.WARNING, "Slow server", null);
+		logger.doLog(Level.ERROR, "Fetch failed", new IllegalStateException("timeout"));
+		logger.flush();
+
+		assertEquals("WARNING: Slow server\nERROR: Fetch failed: timeout\n", log());
+	}
+
+	@Test
+	public void collapsesSimilarLines() {
+		for (int i = 1; i <= 5; i++) {
+			logger.doLog(Level.INFO, "Fetched " + i + " of 5 objects", null);
+		}
+		logger.doLog(Level.INFO, "Fetch done", null);
+		logger.doLog(Level.INFO, "Copy done", null);
+		logger.flush();
+
+		assertEquals("Fetched 5 of 5 objects (4 similar lines collapsed)\nFetch done\nCopy done\n", log());
+	}
+
+	@Test
+	public void capsLinesPerPhase() {
+		logger.setMaxLinesPerPhase(2);
+		logger.phase("fetch");
+		logger.doLog(Level.INFO, "first", null);
+		logger.doLog(Level.INFO, "second", null);
+		logger.doLog(Level.INFO, "third", null);
+		logger.doLog(Level.INFO, "fourth", null);
+		// warnings are never dropped
+		logger.doLog(Level.WARNING, "late", null);
+		logger.phase("checkout");
+		// the cap is counted again
+		logger.doLog(Level.INFO, "fifth", null);
+		logger.phase(null);
+
+		assertEquals("first\nsecond\nWARNING: late\n... 2 more Roundtable messages not shown for fetch.\nfifth\n",
+				log());
+	}
+
+	@Test
+	public void flushesWhenClientGoesQuiet() throws Exception {
+		logger.doLog(Level.INFO, "first", null);
+		logger.doLog(Level.INFO, "second", null);
+
+		// buffered, the last line is held in case similar ones follow
+		assertEquals("", log());
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+		while (log().isEmpty() && System.nanoTime() < deadline) {
+			Thread.sleep(50);
+		}
+		assertEquals("first\nsecond\n", log());
+	}
+
+	@Test
+	public void flushesOnPhase() {
+		logger.doLog(Level.INFO, "first", null);
+		logger.phase("checkout");
+
+		assertEquals("first\n", log());
+	}
+
+	private String log() {
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+}
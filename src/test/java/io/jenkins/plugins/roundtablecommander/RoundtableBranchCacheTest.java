@@ -0,0 +1,96 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class RoundtableBranchCacheTest {
+
+	private static final String URL = "appsrv://localhost:5162/rtb";
+	private static final List<String> BRANCHES = Arrays.asList("main", "feature-1");
+
+	private final RoundtableBranchCache cache = RoundtableBranchCache.get();
+
+	@After
+	public void clear() {
+		cache.invalidateAll();
+	}
+
+	@Test
+	public void sharedUntilExpired() throws Exception {
+		AtomicInteger loads = new AtomicInteger();
+		RoundtableBranchCache.Loader loader = () -> {
+			loads.incrementAndGet();
+			return BRANCHES;
+		};
+
+		assertEquals(BRANCHES, cache.getBranches(URL, "", 60_000, loader));
+		assertEquals(BRANCHES, cache.getBranches(URL, "", 60_000, loader));
+		assertEquals(1, loads.get());
+
+		// another identity has its own listing
+		cache.getBranches(URL, "user:digest", 60_000, loader);
+		assertEquals(2, loads.get());
+
+		Thread.sleep(20);
+		cache.getBranches(URL, "", 10, loader);
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	public void notCachedWithoutTtl() throws Exception {
+		AtomicInteger loads = new AtomicInteger();
+		RoundtableBranchCache.Loader loader = () -> {
+			loads.incrementAndGet();
+			return BRANCHES;
+		};
+
+		cache.getBranches(URL, "", 0, loader);
+		cache.getBranches(URL, "", 0, loader);
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	public void waiterLoadsWhenLeaderAborted() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch abort = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		try {
+			Future<Collection<String>> leader = executor.submit(() -> cache.getBranches(URL, "", 60_000, () -> {
+				loading.countDown();
+				abort.await();
+				throw new InterruptedException();
+			}));
+
+			assertTrue(loading.await(10, TimeUnit.SECONDS));
+
+			Future<Collection<String>> waiter = executor.submit(() -> cache.getBranches(URL, "", 60_000,
+					() -> BRANCHES));
+
+			abort.countDown();
+
+			try {
+				leader.get(10, TimeUnit.SECONDS);
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof InterruptedException);
+			}
+			assertEquals(BRANCHES, waiter.get(10, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import hudson.model.TaskListener;
+import ro.acorn.roundtable.model.ICommit;
+import ro.acorn.roundtable.model.ICommitEntry;
+import ro.acorn.roundtable.model.remote.RTBAction;
+
+public class RoundtableChangeLogParserTest {
+
+	/**
+	 * A change log written before it was streamed, the commits of the client
+	 * serialized as a whole.
+	 */
+	private static final String LEGACY = "[{\"revision\":12,\"comment\":\"Fix the order total\","
+			+ "\"date\":1700000000000,\"user\":\"jdoe\",\"entries\":[{\"revision\":12,\"version\":\"order.p:3\","
+			+ "\"action\":\"ADD\",\"notes\":\"new\",\"files\":[\"src/app/order.p\",\"src/app/order.i\"]},"
+			+ "{\"revision\":12,\"version\":\"total.p:1\",\"action\":\"DELETE\",\"notes\":null,"
+			+ "\"files\":[\"src/app/total.p\"]}]},{\"revision\":13,\"comment\":\"Rename\","
+			+ "\"date\":1700000060000,\"user\":\"asmith\",\"entries\":[]}]";
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void roundTripPlain() throws Exception {
+		File changelog = write(false);
+
+		try (InputStream in = Files.newInputStream(changelog.toPath())) {
+			assertEquals('[', in.read());
+		}
+		assertSameCommits(SyntheticData.commits(20, 3, 4), parse(changelog));
+	}
+
+	@Test
+	public void roundTripCompressed() throws Exception {
+		File changelog = write(true);
+
+		try (InputStream in = Files.newInputStream(changelog.toPath())) {
+			assertEquals(GZIPInputStream.GZIP_MAGIC, in.read() | (in.read() << 8));
+		}
+		assertSameCommits(SyntheticData.commits(20, 3, 4), parse(changelog));
+	}
+
+	@Test
+	public void legacyChangeLog() throws Exception {
+		File changelog = tmp.newFile("changelog.xml");
+
+		Files.write(changelog.toPath(), LEGACY.getBytes(StandardCharsets.UTF_8));
+
+		List<RoundtableChangeLogEntry> entries = parse(changelog);
+
+		assertEquals(2, entries.size());
+
+		RoundtableChangeLogEntry first = entries.get(0);
+
+		assertEquals(12, first.getRevision());
+		assertEquals("Fix the order total", first.getMsg());
+		assertEquals("jdoe", first.getUser());
+		assertEquals(new Date(1700000000000L), first.getDate());
+		assertEquals(Arrays.asList("src/app/order.p", "src/app/order.i", "src/app/total.p"),
+				new ArrayList<>(first.getAffectedPaths()));
+		assertEquals(RTBAction.DELETE, new ArrayList<>(first.getEntries()).get(1).getAction());
+
+		assertEquals("asmith", entries.get(1).getUser());
+		assertTrue(entries.get(1).getAffectedPaths().isEmpty());
+	}
+
+	@Test
+	public void nothingWrittenWithoutCommits() throws Exception {
+		File changelog = new File(tmp.getRoot(), "changelog.xml");
+
+		try (RoundtableChangeLogWriter writer = new RoundtableChangeLogWriter(changelog, TaskListener.NULL, true)) {
+			writer.write(new ArrayList<>());
+		}
+
+		assertFalse(changelog.exists());
+		assertTrue(new RoundtableChangeLogParser().parse(null, null, changelog).isEmptySet());
+	}
+
+	private File write(boolean compress) throws Exception {
+		File changelog = tmp.newFile("changelog.xml");
+
+		// written in several parts, like the workspaces of a checkout
+		try (RoundtableChangeLogWriter writer = new RoundtableChangeLogWriter(changelog, TaskListener.NULL,
+				compress)) {
+			List<ICommit> commits = SyntheticData.commits(20, 3, 4);
+
+			writer.write(commits.subList(0, 5));
+			writer.write(commits.subList(5, 20));
+			assertEquals(20, writer.getCount());
+		}
+		return changelog;
+	}
+
+	private static List<RoundtableChangeLogEntry> parse(File changelog) throws Exception {
+		List<RoundtableChangeLogEntry> entries = new ArrayList<>();
+
+		new RoundtableChangeLogParser().parse(null, null, changelog).forEach(e -> entries.add(
+				(RoundtableChangeLogEntry) e));
+		return entries;
+	}
+
+	private static void assertSameCommits(List<ICommit> expected, List<RoundtableChangeLogEntry> actual) {
+		assertEquals(expected.size(), actual.size());
+
+		for (int i = 0; i < expected.size(); i++) {
+			ICommit commit = expected.get(i);
+			RoundtableChangeLogEntry entry = actual.get(i);
+			List<String> files = new ArrayList<>();
+
+			for (ICommitEntry e : commit.getEntries()) {
+				files.addAll(e.getFiles());
+			}
+
+			assertEquals(commit.getRevision(), entry.getRevision());
+			assertEquals(commit.getComment(), entry.getMsg());
+			assertEquals(commit.getUser(), entry.getUser());
+			assertEquals(commit.getDate(), entry.getDate());
+			assertEquals(files, new ArrayList<>(entry.getAffectedPaths()));
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import hudson.model.TaskListener;
+
+public class RoundtableChangeLogSetTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void readEntries() throws Exception {
+		File changelog = write(5);
+		RoundtableChangeLogSet set = new RoundtableChangeLogSet(null, null, changelog);
+
+		assertFalse(set.isEmptySet());
+		assertEquals(5, set.getSize());
+		assertEquals(5, list(set).size());
+		assertEquals(5, set.getEntries().size());
+	}
+
+	@Test
+	public void truncatedFileShowsEntriesRead() throws Exception {
+		File changelog = write(5);
+		byte[] content = Files.readAllBytes(changelog.toPath());
+
+		Files.write(changelog.toPath(), Arrays.copyOf(content, content.length / 2));
+
+		List<RoundtableChangeLogEntry> entries = list(new RoundtableChangeLogSet(null, null, changelog));
+
+		assertTrue("entries: " + entries.size(), entries.size() < 5);
+	}
+
+	@Test
+	public void invalidFileShowsNothing() throws Exception {
+		File changelog = tmp.newFile("changelog.xml");
+
+		Files.write(changelog.toPath(), "<changelog/>".getBytes(StandardCharsets.UTF_8));
+
+		RoundtableChangeLogSet set = new RoundtableChangeLogSet(null, null, changelog);
+
+		assertFalse(set.iterator().hasNext());
+		assertTrue(set.getEntries().isEmpty());
+	}
+
+	private File write(int commits) throws Exception {
+		File changelog = tmp.newFile("changelog.xml");
+
+		try (RoundtableChangeLogWriter writer = new RoundtableChangeLogWriter(changelog, TaskListener.NULL, false)) {
+			writer.write(SyntheticData.commits(commits, 2, 2));
+		}
+		return changelog;
+	}
+
+	private static List<RoundtableChangeLogEntry> list(RoundtableChangeLogSet set) {
+		List<RoundtableChangeLogEntry> entries = new ArrayList<>();
+
+		set.iterator().forEachRemaining(entries::add);
+		return entries;
+	}
+}
@@ -0,0 +1,70 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ro.acorn.roundtable.model.ICommit;
+
+public class RoundtableChangeLogSummaryTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void saveAndLoad() throws Exception {
+		File changelog = tmp.newFile("changelog.xml");
+		RoundtableChangeLogSummary summary = new RoundtableChangeLogSummary();
+
+		for (ICommit commit : SyntheticData.commits(30, 1, 1)) {
+			summary.add(commit);
+		}
+		summary.save(changelog);
+
+		RoundtableChangeLogSummary loaded = RoundtableChangeLogSummary.load(changelog);
+
+		assertNotNull(loaded);
+		assertEquals(30, loaded.getCount());
+		assertEquals(summary.getAuthors(), loaded.getAuthors());
+		assertEquals(RoundtableChangeLogSummary.MAX_MESSAGES, loaded.getMessages().size());
+		assertEquals(1000, loaded.getMessages().get(0).getRevision());
+		assertEquals(summary.getMessages().get(0).getMsg(), loaded.getMessages().get(0).getMsg());
+		assertTrue(loaded.isTruncated());
+	}
+
+	@Test
+	public void notTruncated() throws Exception {
+		File changelog = tmp.newFile("changelog.xml");
+		RoundtableChangeLogSummary summary = new RoundtableChangeLogSummary();
+
+		SyntheticData.commits(3, 1, 1).forEach(summary::add);
+		summary.save(changelog);
+
+		assertFalse(RoundtableChangeLogSummary.load(changelog).isTruncated());
+	}
+
+	@Test
+	public void unknownPropertiesIgnored() throws Exception {
+		File changelog = tmp.newFile("changelog.xml");
+
+		Files.write(new File(changelog.getPath() + RoundtableChangeLogSummary.SUFFIX).toPath(),
+				"{\"count\":2,\"truncated\":true,\"other\":1}".getBytes(StandardCharsets.UTF_8));
+
+		assertEquals(2, RoundtableChangeLogSummary.load(changelog).getCount());
+	}
+
+	@Test
+	public void missingSummary() throws Exception {
+		assertNull(RoundtableChangeLogSummary.load(tmp.newFile("changelog.xml")));
+	}
+}
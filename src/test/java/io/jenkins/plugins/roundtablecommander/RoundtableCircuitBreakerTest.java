@@ -0,0 +1,76 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.file.AccessDeniedException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class RoundtableCircuitBreakerTest {
+
+	private final RoundtableCircuitBreaker breaker = RoundtableCircuitBreaker.get();
+
+	@Test
+	public void opensAfterFailuresInARow() {
+		String url = "appsrv://opens:5162/rtb";
+
+		for (int i = 1; i < RoundtableCircuitBreaker.FAILURE_THRESHOLD; i++) {
+			assertFalse(breaker.allow(url));
+			breaker.failure(url);
+		}
+		assertFalse(breaker.allow(url));
+		breaker.failure(url);
+
+		assertThrows(RoundtableCircuitBreaker.UnavailableException.class, () -> breaker.allow(url));
+		// other servers are not affected
+		assertFalse(breaker.allow("appsrv://other:5162/rtb"));
+
+		breaker.success(url);
+		assertFalse(breaker.allow(url));
+	}
+
+	@Test
+	public void successResetsFailures() {
+		String url = "appsrv://resets:5162/rtb";
+
+		for (int i = 0; i < 3 * RoundtableCircuitBreaker.FAILURE_THRESHOLD; i++) {
+			breaker.failure(url);
+			if (i % 2 == 0) {
+				breaker.success(url);
+			}
+		}
+		assertFalse(breaker.allow(url));
+	}
+
+	@Test
+	public void serverFailures() {
+		List<Throwable> server = Arrays.asList(new ConnectException("Connection refused"),
+				new SocketTimeoutException("Read timed out"), new NoRouteToHostException("No route to host"),
+				new UnknownHostException("appsrv"), new SocketException("Connection reset"),
+				new RuntimeException("fetch failed", new SocketException("Broken pipe")),
+				new UncheckedIOException(new SocketTimeoutException("connect timed out")),
+				new IOException("Cannot connect", new ConnectException("Connection refused")));
+		// the messages alone do not tell
+		List<Throwable> other = Arrays.asList(new RuntimeException("Invalid user name or password"),
+				new RuntimeException("The AppServer is unavailable"),
+				new RuntimeException("Workspace feature-1 not found"), new FileNotFoundException("rtb.cfg"),
+				new AccessDeniedException("rtb.cfg"), new IOException("Connection refused"),
+				new InterruptedIOException("interrupted"), new NullPointerException());
+
+		server.forEach(e -> assertTrue(e.toString(), RoundtableCircuitBreaker.isServerFailure(e)));
+		other.forEach(e -> assertFalse(e.toString(), RoundtableCircuitBreaker.isServerFailure(e)));
+	}
+}
@@ -0,0 +1,147 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Result;
+import hudson.model.queue.QueueTaskFuture;
+
+/**
+ * Runs concurrent builds against the in-process {@link FakeRoundtableClient},
+ * checks every workspace is fetched once per build within the session limit,
+ * with the checkout timings recorded by each build, and logs the fetch time
+ * percentiles with the controller heap and thread usage.
+ * <p>
+ * The defaults keep the test short, larger loads are run locally with the
+ * system properties {@code roundtable.load.builds},
+ * {@code roundtable.load.branches}, {@code roundtable.load.commits},
+ * {@code roundtable.load.latency} (milliseconds per server call) and
+ * {@code roundtable.load.connections} (sessions allowed to the server).
+ */
+public class RoundtableLoadTest {
+
+	private static final int BUILDS = Integer.getInteger("roundtable.load.builds", 4);
+	private static final int BRANCHES = Integer.getInteger("roundtable.load.branches", 20);
+	private static final int COMMITS = Integer.getInteger("roundtable.load.commits", 10);
+	private static final long LATENCY = Long.getLong("roundtable.load.latency", 2);
+	private static final int CONNECTIONS = Integer.getInteger("roundtable.load.connections", 2);
+
+	private static final String URL = "appsrv://localhost:5162/rtb";
+
+	@Rule
+	public JenkinsRule r = new JenkinsRule();
+
+	private static final Logger LOGGER = Logger.getLogger(RoundtableLoadTest.class.getName());
+
+	@After
+	public void reset() {
+		RoundtableClientPool.get().setFactoryOverride(null);
+		RoundtableServerLimiter.get().reset();
+		RoundtableBranchCache.get().invalidateAll();
+		RoundtableMetrics.get().clear();
+	}
+
+	@Test
+	public void concurrentCheckouts() throws Exception {
+		FakeRoundtableClient server = new FakeRoundtableClient(BRANCHES, COMMITS, LATENCY);
+		List<FreeStyleProject> projects = new ArrayList<>();
+		List<QueueTaskFuture<FreeStyleBuild>> builds = new ArrayList<>();
+
+		RoundtableClientPool.get().setFactoryOverride(server::newClient);
+		r.jenkins.setNumExecutors(BUILDS);
+		r.jenkins.getDescriptorByType(RoundtableCommanderSCM.DescriptorImpl.class).setMaxConnections(CONNECTIONS);
+
+		for (int i = 0; i < BUILDS; i++) {
+			FreeStyleProject project = r.createFreeStyleProject("load" + i);
+
+			project.setScm(new RoundtableCommanderSCM(
+					Collections.singletonList(new RemoteConfig(URL, "origin", null,
+							Collections.singletonList(new WorkspaceSpec("**")))),
+					null, null, null));
+			projects.add(project);
+		}
+
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		AtomicLong maxHeap = new AtomicLong();
+		ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+
+		threads.resetPeakThreadCount();
+		sampler.scheduleAtFixedRate(() -> maxHeap.accumulateAndGet(
+				ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), Math::max), 0, 50,
+				TimeUnit.MILLISECONDS);
+
+		try {
+			// all scheduled right away so the builds run at the same time
+			for (FreeStyleProject project : projects) {
+				builds.add(project.scheduleBuild2(0));
+			}
+
+			List<Long> latencies = new ArrayList<>();
+
+			for (QueueTaskFuture<FreeStyleBuild> build : builds) {
+				FreeStyleBuild b = build.get(5, TimeUnit.MINUTES);
+
+				r.assertBuildStatus(Result.SUCCESS, b);
+
+				BuildData data = b.getAction(BuildData.class);
+
+				assertNotNull(data);
+				assertEquals(BRANCHES, data.getRevisions().get(RoundtableRevisionState.key("origin", URL)).size());
+				assertEquals(1, data.getCheckouts().size());
+
+				CheckoutTimings timings = data.getCheckouts().get(0);
+
+				// a first build reports every commit fetched
+				assertEquals(BRANCHES, timings.getWorkspaces());
+				assertEquals(BRANCHES * COMMITS, timings.getCommits());
+				assertTrue("bytes: " + timings.getBytes(), timings.getBytes() > 0);
+				assertNotNull(timings.getPhases().get("fetch"));
+				latencies.add(timings.getPhases().get("fetch"));
+			}
+
+			assertEquals(BUILDS * BRANCHES, server.getFetches());
+			assertEquals(0, server.getConcurrentUses());
+			if (CONNECTIONS > 0) {
+				assertTrue("sessions: " + server.getMaxSessions(), server.getMaxSessions() <= CONNECTIONS);
+				// every listing and fetch waited for its session
+				assertTrue(RoundtableMetrics.get().getHistograms().stream()
+						.anyMatch(h -> URL.equals(h.getUrl()) && "wait".equals(h.getOperation())));
+			}
+
+			Collections.sort(latencies);
+
+			LOGGER.info(String.format(
+					"Roundtable load: builds=%d branches=%d commits=%d latency=%dms connections=%d calls=%d"
+							+ " fetch p50=%dms p90=%dms p99=%dms max=%dms heap=%dMB threads=%d",
+					BUILDS, BRANCHES, COMMITS, LATENCY, CONNECTIONS, server.getCalls(), percentile(latencies, 50),
+					percentile(latencies, 90), percentile(latencies, 99), latencies.get(latencies.size() - 1),
+					maxHeap.get() / (1024 * 1024), threads.getPeakThreadCount()));
+		} finally {
+			sampler.shutdownNow();
+		}
+	}
+
+	private static long percentile(List<Long> sorted, int percentile) {
+		int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+		return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+	}
+}
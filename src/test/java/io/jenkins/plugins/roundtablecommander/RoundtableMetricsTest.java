@@ -0,0 +1,88 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class RoundtableMetricsTest {
+
+	private static final String URL = "appsrv://localhost:5162/rtb";
+
+	@Test
+	public void percentiles() {
+		RoundtableMetrics metrics = new RoundtableMetrics();
+
+		for (int ms = 1; ms <= 1000; ms++) {
+			metrics.record(URL, "fetch", TimeUnit.MILLISECONDS.toNanos(ms), ms % 10 == 0);
+		}
+
+		RoundtableMetrics.Histogram histogram = metrics.getHistograms().get(0);
+
+		assertEquals(1000, histogram.getCount());
+		assertEquals(100, histogram.getErrors());
+		assertEquals(10.0, histogram.getErrorRate(), 0.001);
+		assertEquals(1_000_000, histogram.getMax());
+		assertEquals(500_500_000, histogram.getSum());
+
+		double[][] expected = { { 50, 500_000 }, { 90, 900_000 }, { 99, 990_000 }, { 100, 1_000_000 } };
+
+		for (double[] e : expected) {
+			long value = histogram.getPercentile(e[0]);
+			assertTrue(e[0] + "th: " + value, value >= e[1] && value <= e[1] * 1.125);
+		}
+	}
+
+	@Test
+	public void smallValuesExact() {
+		RoundtableMetrics metrics = new RoundtableMetrics();
+
+		for (int micros = 0; micros < 8; micros++) {
+			metrics.record(URL, "getRemotes", TimeUnit.MICROSECONDS.toNanos(micros), false);
+		}
+
+		RoundtableMetrics.Histogram histogram = metrics.getHistograms().get(0);
+
+		assertEquals(3, histogram.getPercentile(50));
+		assertEquals(7, histogram.getPercentile(100));
+	}
+
+	@Test
+	public void clear() {
+		RoundtableMetrics metrics = new RoundtableMetrics();
+
+		metrics.record(URL, "fetch", TimeUnit.SECONDS.toNanos(1), false);
+		metrics.clear();
+
+		assertTrue(metrics.getHistograms().isEmpty());
+	}
+
+	@Test
+	public void merge() {
+		RoundtableMetrics controller = new RoundtableMetrics();
+		RoundtableMetrics agent = new RoundtableMetrics();
+
+		controller.record(URL, "fetch", TimeUnit.MILLISECONDS.toNanos(10), false);
+		agent.record(URL, "fetch", TimeUnit.MILLISECONDS.toNanos(30), true);
+		agent.record(RoundtableMetrics.LOCAL, "checkout", TimeUnit.MILLISECONDS.toNanos(5), false);
+
+		controller.merge(agent);
+		controller.merge(controller);
+
+		assertEquals(2, controller.getHistograms().size());
+
+		// ordered by URL
+		RoundtableMetrics.Histogram fetch = controller.getHistograms().get(0);
+		RoundtableMetrics.Histogram local = controller.getHistograms().get(1);
+
+		assertEquals(RoundtableMetrics.LOCAL, local.getUrl());
+		assertEquals(1, local.getCount());
+		assertEquals(URL, fetch.getUrl());
+		assertEquals(2, fetch.getCount());
+		assertEquals(1, fetch.getErrors());
+		assertEquals(30_000, fetch.getMax());
+		assertEquals(40_000, fetch.getSum());
+	}
+}
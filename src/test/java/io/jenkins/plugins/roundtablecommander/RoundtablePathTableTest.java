@@ -0,0 +1,84 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class RoundtablePathTableTest {
+
+	private static final List<String> PATHS = Arrays.asList("src/app/ui/main.w", "src/app/ui/menu.w",
+			"src/app/model/order.cls", "src/common/util.i", "db/schema/order.df", "README", "/abs/file.p",
+			"folder/", "a//b", "", "/", "src", "src/app");
+
+	@Test
+	public void roundTrip() {
+		RoundtablePathTable table = new RoundtablePathTable();
+
+		for (String path : PATHS) {
+			assertEquals(path, table.get(table.intern(path)));
+		}
+	}
+
+	@Test
+	public void sharedPrefixes() {
+		RoundtablePathTable table = new RoundtablePathTable();
+
+		table.intern("src/app/ui/main.w");
+		// src, app, ui and main.w
+		assertEquals(4, table.size());
+
+		table.intern("src/app/ui/menu.w");
+		table.intern("src/app/model/order.cls");
+		// menu.w, then model and order.cls
+		assertEquals(7, table.size());
+
+		// a folder interned as a path is the folder node
+		assertEquals("src/app", table.get(table.intern("src/app")));
+		assertEquals(7, table.size());
+	}
+
+	@Test
+	public void separatorsAndEmptySegments() {
+		RoundtablePathTable table = new RoundtablePathTable();
+
+		// the empty segments are kept, so these are all different paths
+		int plain = table.intern("src/main.w");
+		int leading = table.intern("/src/main.w");
+		int trailing = table.intern("src/main.w/");
+		int empty = table.intern("src//main.w");
+
+		assertNotEquals(plain, leading);
+		assertNotEquals(plain, trailing);
+		assertNotEquals(plain, empty);
+		assertEquals("/src/main.w", table.get(leading));
+		assertEquals("src/main.w/", table.get(trailing));
+		assertEquals("src//main.w", table.get(empty));
+		assertEquals("", table.get(table.intern("")));
+	}
+
+	@Test
+	public void stableIds() {
+		RoundtablePathTable table = new RoundtablePathTable();
+		int[] first = table.intern(PATHS);
+		int size = table.size();
+
+		// paths of the next entries get the ids already given
+		assertArrayEquals(first, table.intern(PATHS));
+		assertEquals(size, table.size());
+
+		int[] more = table.intern(SyntheticData.workspaces(100));
+
+		assertArrayEquals(first, table.intern(PATHS));
+		for (int i = 0; i < more.length; i++) {
+			assertEquals(SyntheticData.workspaces(100).get(i), table.get(more[i]));
+		}
+		for (int i = 0; i < first.length; i++) {
+			assertEquals(PATHS.get(i), table.get(first[i]));
+		}
+	}
+}
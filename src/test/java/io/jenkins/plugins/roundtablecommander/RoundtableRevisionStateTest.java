@@ -0,0 +1,126 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import hudson.EnvVars;
+import hudson.model.TaskListener;
+import hudson.scm.PollingResult;
+import hudson.scm.SCMRevisionState;
+
+public class RoundtableRevisionStateTest {
+
+	private static final String ORIGIN = RoundtableRevisionState.key("origin", "appsrv://first:5162/rtb");
+	private static final String OTHER = RoundtableRevisionState.key("origin", "appsrv://second:5162/rtb");
+
+	@Test
+	public void unchanged() {
+		RoundtableRevisionState baseline = state(ORIGIN, "main", 10, "release", 20);
+
+		assertEquals(PollingResult.Change.NONE, state(ORIGIN, "main", 10, "release", 20).compareTo(baseline));
+	}
+
+	@Test
+	public void newBranchIsSignificant() {
+		RoundtableRevisionState baseline = state(ORIGIN, "main", 10);
+
+		assertEquals(PollingResult.Change.SIGNIFICANT,
+				state(ORIGIN, "main", 10, "feature-1", 5).compareTo(baseline));
+		// even when nothing was received for it yet
+		assertEquals(PollingResult.Change.SIGNIFICANT,
+				state(ORIGIN, "main", 10, "feature-1", RoundtableRevisionState.UNKNOWN).compareTo(baseline));
+	}
+
+	@Test
+	public void movedHeadIsSignificant() {
+		RoundtableRevisionState baseline = state(ORIGIN, "main", 10, "release", 20);
+
+		assertEquals(PollingResult.Change.SIGNIFICANT, state(ORIGIN, "main", 11, "release", 20).compareTo(baseline));
+		// a first known revision
+		assertEquals(PollingResult.Change.SIGNIFICANT, state(ORIGIN, "main", 10, "release", 20)
+				.compareTo(state(ORIGIN, "main", 10, "release", RoundtableRevisionState.UNKNOWN)));
+	}
+
+	@Test
+	public void removedBranchIsInsignificant() {
+		RoundtableRevisionState baseline = state(ORIGIN, "main", 10, "release", 20);
+
+		assertEquals(PollingResult.Change.INSIGNIFICANT, state(ORIGIN, "main", 10).compareTo(baseline));
+	}
+
+	@Test
+	public void remotesKeyedByUrl() {
+		RoundtableRevisionState baseline = state(ORIGIN, "main", 10);
+		RoundtableRevisionState moved = state(ORIGIN, "main", 10);
+
+		moved.setRevision(OTHER, "main", 10);
+
+		// the same remote name on another server is another remote
+		assertEquals(PollingResult.Change.SIGNIFICANT, moved.compareTo(baseline));
+		assertEquals("origin", RoundtableRevisionState.key("origin", null));
+	}
+
+	@Test
+	public void unknownCarriedFromBaseline() {
+		RoundtableRevisionState baseline = state(ORIGIN, "main", 10, "release", 20);
+		RoundtableRevisionState polled = RoundtableRevisionState.of(
+				heads(ORIGIN, "main", RoundtableRevisionState.UNKNOWN, "release", 21, "feature-1",
+						RoundtableRevisionState.UNKNOWN),
+				baseline);
+
+		assertEquals(10, polled.getRevision(ORIGIN, "main"));
+		assertEquals(21, polled.getRevision(ORIGIN, "release"));
+		assertEquals(RoundtableRevisionState.UNKNOWN, polled.getRevision(ORIGIN, "feature-1"));
+
+		// nothing received for a known workspace is no change
+		assertEquals(PollingResult.Change.NONE, RoundtableRevisionState
+				.of(heads(ORIGIN, "main", RoundtableRevisionState.UNKNOWN, "release", 20), baseline)
+				.compareTo(baseline));
+		// without a baseline the revision stays unknown
+		assertEquals(RoundtableRevisionState.UNKNOWN, RoundtableRevisionState
+				.of(heads(ORIGIN, "main", RoundtableRevisionState.UNKNOWN), SCMRevisionState.NONE)
+				.getRevision(ORIGIN, "main"));
+	}
+
+	@Test
+	public void pollReadsHeadOfEachWorkspace() throws Exception {
+		FakeRoundtableClient server = new FakeRoundtableClient(3, 2, 0);
+		RoundtableCheckout.Remote remote = new RoundtableCheckout.Remote("origin", "appsrv://first:5162/rtb", null,
+				null, null, 1, 0);
+		RoundtableCheckout checkout = new RoundtableCheckout(Collections.singletonList(remote), new EnvVars(), null,
+				1, 0);
+
+		checkout.setMetrics(new RoundtableMetrics());
+
+		RoundtableRevisionState first = RoundtableRevisionState.of(checkout.poll(server.newClient(), TaskListener.NULL),
+				null);
+
+		assertEquals(Collections.singleton(ORIGIN), first.getRevisions().keySet());
+		assertEquals(SyntheticData.workspaces(3).size(), first.getRevisions().get(ORIGIN).size());
+		assertEquals(3, server.getFetches());
+
+		// the fake returns newer commits on every fetch
+		RoundtableRevisionState second = RoundtableRevisionState
+				.of(checkout.poll(server.newClient(), TaskListener.NULL), first);
+
+		assertEquals(PollingResult.Change.SIGNIFICANT, second.compareTo(first));
+	}
+
+	private static RoundtableRevisionState state(String remote, Object... branches) {
+		return RoundtableRevisionState.of(heads(remote, branches), null);
+	}
+
+	private static Map<String, Map<String, Integer>> heads(String remote, Object... branches) {
+		Map<String, Integer> heads = new LinkedHashMap<>();
+
+		for (int i = 0; i < branches.length; i += 2) {
+			heads.put((String) branches[i], (Integer) branches[i + 1]);
+		}
+		return Collections.singletonMap(remote, heads);
+	}
+}
@@ -0,0 +1,131 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Test;
+
+import hudson.model.TaskListener;
+
+public class RoundtableServerLimiterTest {
+
+	private final RoundtableServerLimiter limiter = RoundtableServerLimiter.get();
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@After
+	public void reset() {
+		executor.shutdownNow();
+		limiter.reset();
+	}
+
+	@Test
+	public void waitsForReleasedSession() throws Exception {
+		String url = "appsrv://waits:5162/rtb";
+		RoundtableMetrics metrics = new RoundtableMetrics();
+
+		RoundtableServerLimiter.Permit first = limiter.acquire(url, 2, TaskListener.NULL, metrics);
+		RoundtableServerLimiter.Permit second = limiter.acquire(url, 2, TaskListener.NULL, metrics);
+		Future<RoundtableServerLimiter.Permit> third = acquire(url, 2);
+
+		assertBlocked(third);
+		first.close();
+		// closing twice does not release another session
+		first.close();
+		third.get(10, TimeUnit.SECONDS).close();
+		second.close();
+
+		// the waiting build records no metrics
+		assertEquals(2, metrics.getHistograms().get(0).getCount());
+		assertEquals("wait", metrics.getHistograms().get(0).getOperation());
+	}
+
+	@Test
+	public void lowestLimitApplies() throws Exception {
+		String url = "appsrv://lowest:5162/rtb";
+
+		try (RoundtableServerLimiter.Permit permit = limiter.acquire(url, 1, TaskListener.NULL, null)) {
+			// neither a higher limit nor no limit at all lifts it
+			Future<?> higher = acquireAndRelease(url, 3);
+			Future<?> unlimited = acquireAndRelease(url, 0);
+
+			assertBlocked(higher);
+			assertBlocked(unlimited);
+
+			permit.close();
+			higher.get(10, TimeUnit.SECONDS);
+			unlimited.get(10, TimeUnit.SECONDS);
+		}
+	}
+
+	@Test
+	public void notLimitedWithoutLimit() throws Exception {
+		String url = "appsrv://unlimited:5162/rtb";
+
+		assertSame(RoundtableServerLimiter.Permit.NONE, limiter.acquire(url, 0, TaskListener.NULL, null));
+		assertSame(RoundtableServerLimiter.Permit.NONE, limiter.acquire(null, 1, TaskListener.NULL, null));
+		assertSame(RoundtableServerLimiter.Permit.NONE,
+				limiter.acquireAll(Collections.singletonMap(url, 0), TaskListener.NULL, null));
+	}
+
+	@Test
+	public void permitCoversLimitedServers() throws Exception {
+		Map<String, Integer> servers = new HashMap<>();
+
+		servers.put("appsrv://covered:5162/rtb", 2);
+		servers.put("appsrv://free:5162/rtb", 0);
+
+		try (RoundtableServerLimiter.Permit permit = limiter.acquireAll(servers, TaskListener.NULL, null)) {
+			assertTrue(permit.covers("appsrv://covered:5162/rtb"));
+			assertFalse(permit.covers("appsrv://free:5162/rtb"));
+		}
+	}
+
+	@Test
+	public void resetRaisesLimit() throws Exception {
+		String url = "appsrv://reset:5162/rtb";
+
+		try (RoundtableServerLimiter.Permit permit = limiter.acquire(url, 1, TaskListener.NULL, null)) {
+			limiter.reset();
+
+			// the session still open does not count against the new limit
+			RoundtableServerLimiter.Permit raised = acquire(url, 2).get(10, TimeUnit.SECONDS);
+			RoundtableServerLimiter.Permit again = acquire(url, 2).get(10, TimeUnit.SECONDS);
+
+			raised.close();
+			again.close();
+		}
+	}
+
+	private Future<RoundtableServerLimiter.Permit> acquire(String url, int maxConnections) {
+		return executor.submit(() -> limiter.acquire(url, maxConnections, TaskListener.NULL, null));
+	}
+
+	private Future<?> acquireAndRelease(String url, int maxConnections) {
+		return executor.submit(() -> {
+			limiter.acquire(url, maxConnections, TaskListener.NULL, null).close();
+			return null;
+		});
+	}
+
+	private static void assertBlocked(Future<?> future) throws Exception {
+		try {
+			future.get(200, TimeUnit.MILLISECONDS);
+			fail("the session should not be available");
+		} catch (TimeoutException e) {
+			assertFalse(future.isDone());
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import ro.acorn.roundtable.model.ICommit;
+import ro.acorn.roundtable.model.ICommitEntry;
+import ro.acorn.roundtable.model.remote.RTBAction;
+
+/**
+ * Synthetic workspaces and commits of realistic size, generated from a fixed
+ * seed so runs can be compared.
+ */
+final class SyntheticData {
+
+	private static final String[] FOLDERS = { "src", "src/app", "src/app/ui", "src/app/model", "src/common",
+			"db", "db/schema", "reports", "test" };
+
+	private SyntheticData() {
+	}
+
+	/**
+	 * @param count number of workspaces
+	 * @return workspace names like {@code team3/feature-12}
+	 */
+	static List<String> workspaces(int count) {
+		List<String> workspaces = new ArrayList<>(count);
+
+		for (int i = 0; i < count; i++) {
+			switch (i % 4) {
+			case 0:
+				workspaces.add("feature-" + i);
+				break;
+			case 1:
+				workspaces.add("release/" + (i / 100) + "." + (i % 100));
+				break;
+			case 2:
+				workspaces.add("team" + (i % 10) + "/feature-" + i);
+				break;
+			default:
+				workspaces.add("team" + (i % 10) + "/fix/" + i);
+				break;
+			}
+		}
+
+		return workspaces;
+	}
+
+	/**
+	 * @param count   number of commits
+	 * @param entries entries per commit
+	 * @param files   files per entry
+	 * @return the commits, newest revision last
+	 */
+	static List<ICommit> commits(int count, int entries, int files) {
+		Random random = new Random(42);
+		List<ICommit> commits = new ArrayList<>(count);
+
+		for (int c = 0; c < count; c++) {
+			Commit commit = new Commit();
+
+			commit.revision = 1000 + c;
+			commit.comment = "Change " + c + ": update " + FOLDERS[c % FOLDERS.length] + " for ticket #" + (c * 7);
+			commit.user = "user" + (c % 25);
+			commit.date = new Date(1_700_000_000_000L + c * 60_000L);
+
+			for (int e = 0; e < entries; e++) {
+				RoundtableChangeLogEntry.Entry entry = new RoundtableChangeLogEntry.Entry();
+
+				entry.revision = commit.revision;
+				entry.version = "obj" + random.nextInt(5000) + ".p:" + c;
+				entry.action = e % 3 == 0 ? RTBAction.ADD : RTBAction.DELETE;
+				entry.notes = "notes " + e;
+				entry.files = new ArrayList<>(files);
+
+				for (int f = 0; f < files; f++) {
+					entry.files.add(FOLDERS[random.nextInt(FOLDERS.length)] + "/file" + random.nextInt(2000) + ".p");
+				}
+				commit.entries.add(entry);
+			}
+			commits.add(commit);
+		}
+
+		return commits;
+	}
+
+	/**
+	 * Plain commit as received from the client.
+	 */
+	static final class Commit implements ICommit {
+
+		int revision;
+		String comment;
+		String user;
+		Date date;
+		final List<ICommitEntry> entries = new ArrayList<>();
+
+		@Override
+		public int getRevision() {
+			return revision;
+		}
+
+		@Override
+		public String getComment() {
+			return comment;
+		}
+
+		@Override
+		public Date getDate() {
+			return date;
+		}
+
+		@Override
+		public String getUser() {
+			return user;
+		}
+
+		@Override
+		public Collection<ICommitEntry> getEntries() {
+			return entries;
+		}
+
+		@Override
+		public ICommitEntry addEntry(String versionId, RTBAction action, String notes) {
+			return null;
+		}
+
+		@Override
+		public ICommitEntry addEntry(String versionId, int action, String notes) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.cloudbees.plugins.credentials.domains.DomainRequirement;
+
+import jenkins.benchmark.jmh.JmhBenchmark;
+
+/**
+ * Credential domain requirements built from the remote URLs.
+ */
+@JmhBenchmark
+public class URIRequirementBuilderBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Uri {
+
+		@Param({ "appsrv://rtb.example.com:5162/rtbserver", "http://rtb.example.com/apsv",
+				"appsrv://[fe80::1]:5162/asbroker1/rtb", "rtb.example.com" })
+		String uri;
+	}
+
+	@Benchmark
+	public List<DomainRequirement> fromUri(Uri state) {
+		return RoundtableURIRequirementBuilder.fromUri(state.uri).build();
+	}
+}
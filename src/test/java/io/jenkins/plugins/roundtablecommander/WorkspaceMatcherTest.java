@@ -0,0 +1,137 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import hudson.EnvVars;
+
+public class WorkspaceMatcherTest {
+
+	private static final EnvVars ENV = new EnvVars("TEAM", "team3", "EMPTY", "");
+
+	private static final List<String> WORKSPACES = new ArrayList<>(SyntheticData.workspaces(200));
+
+	static {
+		WORKSPACES.addAll(Arrays.asList("main", "release", "release/", "release/1.0/hotfix", "team3", "team3/",
+				"feature-1/sub", "a*b", "ab", "a/b", ":", "Feature-4", "team3/fix/feature-8"));
+	}
+
+	/**
+	 * Spec lists covering literals, trailing and inner wildcards, regular
+	 * expressions, variables and overlapping specs.
+	 */
+	private static final String[][] SPECS = { //
+			{ "feature-1", "main" }, //
+			{ "*" }, //
+			{ "**" }, //
+			{ "***" }, //
+			{ "" }, //
+			{ "${EMPTY}" }, //
+			{ "release/*" }, //
+			{ "release/**" }, //
+			{ "release*" }, //
+			{ "team*/fix/*" }, //
+			{ "*/feature-*" }, //
+			{ "**/feature-*" }, //
+			{ "${TEAM}/*" }, //
+			{ "${TEAM}/**" }, //
+			{ ":team[0-4]/feature-\\d+" }, //
+			{ ":" }, //
+			{ "a*b" }, //
+			{ "release/**", "release/1.*", "*" }, //
+			{ "*", "feature-1", "release/**" }, //
+			{ "feature-1", "feature-1", "feature-*" }, //
+			{ ":release/0\\..*", "release/*", "team*/**", ":.*" }, //
+			{ "team3/**", "team*/fix/*", "team3/*", ":team3/.*" }, //
+			{ "unknown", "other/*" }, //
+	};
+
+	@Test
+	public void sameAsEachSpecInTurn() {
+		for (String[] names : SPECS) {
+			List<WorkspaceSpec> specs = specs(names);
+			LinkedHashMap<String, WorkspaceSpec> expected = filterEachSpec(specs);
+			LinkedHashMap<String, WorkspaceSpec> actual = new WorkspaceMatcher(specs, ENV).filterMatching(WORKSPACES);
+
+			// the order matters, not only the entries
+			assertEquals(Arrays.toString(names), new ArrayList<>(expected.entrySet()),
+					new ArrayList<>(actual.entrySet()));
+
+			for (String workspace : WORKSPACES) {
+				assertSame(Arrays.toString(names) + " " + workspace, expected.get(workspace),
+						new WorkspaceMatcher(specs, ENV).match(workspace));
+			}
+		}
+	}
+
+	@Test
+	public void orderedByFirstSpec() {
+		List<WorkspaceSpec> specs = specs("release/**", "main", "*");
+		LinkedHashMap<String, WorkspaceSpec> matching = new WorkspaceMatcher(specs, ENV)
+				.filterMatching(Arrays.asList("feature-1", "main", "release/1.0", "team3/fix/1"));
+
+		assertEquals(Arrays.asList("release/1.0", "main", "feature-1"), new ArrayList<>(matching.keySet()));
+	}
+
+	@Test
+	public void lastSpecGivesShallowDepth() {
+		WorkspaceSpec any = new WorkspaceSpec("*");
+		WorkspaceSpec feature = new WorkspaceSpec("feature-1");
+
+		any.setShallow(5);
+		feature.setShallow(1);
+
+		WorkspaceMatcher matcher = new WorkspaceMatcher(Arrays.asList(any, feature), ENV);
+		Map<String, WorkspaceSpec> matching = matcher.filterMatching(Arrays.asList("feature-1", "main"));
+
+		assertEquals(1, matching.get("feature-1").getShallow());
+		assertEquals(5, matching.get("main").getShallow());
+		assertSame(any, matcher.match("main"));
+		assertNull(matcher.match("team3/fix/1"));
+	}
+
+	@Test
+	public void singleWildcardStopsAtSlash() {
+		WorkspaceMatcher one = new WorkspaceMatcher(specs("release/*"), ENV);
+		WorkspaceMatcher two = new WorkspaceMatcher(specs("release/**"), ENV);
+
+		String[][] cases = { { "release/1.0", "true", "true" }, { "release/", "true", "true" },
+				{ "release/1.0/hotfix", "false", "true" }, { "release", "false", "false" } };
+
+		for (String[] c : cases) {
+			assertEquals(c[0], Boolean.parseBoolean(c[1]), one.match(c[0]) != null);
+			assertEquals(c[0], Boolean.parseBoolean(c[2]), two.match(c[0]) != null);
+		}
+	}
+
+	private static List<WorkspaceSpec> specs(String... names) {
+		List<WorkspaceSpec> specs = new ArrayList<>();
+
+		for (String name : names) {
+			specs.add(new WorkspaceSpec(name));
+		}
+		return specs;
+	}
+
+	/**
+	 * The reference: workspaces in the order of the first spec they match, with
+	 * the last spec they match.
+	 */
+	private static LinkedHashMap<String, WorkspaceSpec> filterEachSpec(List<WorkspaceSpec> specs) {
+		LinkedHashMap<String, WorkspaceSpec> matching = new LinkedHashMap<>();
+
+		for (WorkspaceSpec spec : specs) {
+			spec.filterMatching(WORKSPACES, ENV).forEach(w -> matching.put(w, spec));
+		}
+		return matching;
+	}
+}
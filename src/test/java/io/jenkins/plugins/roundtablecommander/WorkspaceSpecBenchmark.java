@@ -0,0 +1,54 @@
+package io.jenkins.plugins.roundtablecommander;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import hudson.EnvVars;
+import jenkins.benchmark.jmh.JmhBenchmark;
+
+/**
+ * Workspace matching over 2000 remote workspaces with wildcard and regular
+ * expression specs, one spec at a time and with the combined matcher.
+ */
+@JmhBenchmark
+public class WorkspaceSpecBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Workspaces {
+
+		List<String> workspaces;
+		List<WorkspaceSpec> specs;
+		EnvVars env;
+
+		@Setup
+		public void setup() {
+			workspaces = SyntheticData.workspaces(2000);
+			env = new EnvVars("TEAM", "team3");
+			specs = new ArrayList<>();
+
+			for (String name : Arrays.asList("feature-1", "release/**", "${TEAM}/*", "team*/fix/*", "*",
+					":team[0-4]/feature-\\d+", ":release/1\\.\\d")) {
+				specs.add(new WorkspaceSpec(name));
+			}
+		}
+	}
+
+	@Benchmark
+	public void filterMatching(Workspaces state, Blackhole blackhole) {
+		for (WorkspaceSpec spec : state.specs) {
+			blackhole.consume(spec.filterMatching(state.workspaces, state.env));
+		}
+	}
+
+	@Benchmark
+	public void matcher(Workspaces state, Blackhole blackhole) {
+		blackhole.consume(new WorkspaceMatcher(state.specs, state.env).filterMatching(state.workspaces));
+	}
+}